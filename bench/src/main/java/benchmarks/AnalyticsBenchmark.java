@@ -0,0 +1,70 @@
+package benchmarks;
+
+import controllers.ReservationColumns;
+import controllers.ReservationManager;
+import models.reservation.Reservation;
+import models.reservation.ReservationType;
+import models.room.Room;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Benchmarks of full-history aggregations: streams over the reservation
+ * objects compared with scans of the {@link ReservationColumns}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class AnalyticsBenchmark {
+    @Param({"100000", "10000000"})
+    public int reservationCount;
+
+    private ReservationManager manager;
+    private ReservationColumns columns;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<Room> rooms = BenchmarkData.rooms(1000);
+        manager = new ReservationManager();
+        manager.addRooms(rooms);
+        columns = new ReservationColumns(manager);
+        manager.loadReservations(BenchmarkData.reservations(rooms, reservationCount));
+    }
+
+    @Benchmark
+    public Map<ReservationType, Long> streamHoursByType() {
+        return manager.getAllReservations().stream()
+            .filter(reservation -> reservation.getType() != null)
+            .collect(Collectors.groupingBy(Reservation::getType, Collectors.summingLong(Reservation::getDurationHours)));
+    }
+
+    @Benchmark
+    public Map<YearMonth, Long> streamHoursByMonth() {
+        return manager.getAllReservations().stream()
+            .collect(Collectors.groupingBy(reservation -> YearMonth.from(reservation.getDate()),
+                Collectors.summingLong(Reservation::getDurationHours)));
+    }
+
+    @Benchmark
+    public Map<Room, Long> columnsHoursByRoom() {
+        return columns.getHoursByRoom();
+    }
+
+    @Benchmark
+    public Map<ReservationType, Long> columnsHoursByType() {
+        return columns.getHoursByType();
+    }
+
+    @Benchmark
+    public Map<YearMonth, Long> columnsHoursByMonth() {
+        return columns.getHoursByMonth();
+    }
+}
@@ -0,0 +1,56 @@
+package benchmarks;
+
+import models.reservation.Reservation;
+import models.room.Room;
+import utils.WorkloadGenerator;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Deterministic data sets shared by the benchmarks, built by the {@link WorkloadGenerator}.
+ */
+public final class BenchmarkData {
+    /** The first day of every generated data set. */
+    public static final LocalDate FIRST_DAY = LocalDate.of(2020, 1, 1);
+
+    private static final long SEED = 42;
+    private static final double DENSITY = 0.6;
+
+    private BenchmarkData() {}
+
+    /**
+     * Creates a campus of rooms.
+     *
+     * @param count the number of rooms
+     * @return the rooms
+     */
+    public static List<Room> rooms(int count) {
+        return new WorkloadGenerator(SEED).generateRooms(count);
+    }
+
+    /**
+     * Creates non-overlapping reservations filling the rooms day by day.
+     *
+     * @param rooms the rooms
+     * @param count the number of reservations
+     * @return the reservations, ordered by date
+     */
+    public static List<Reservation> reservations(List<Room> rooms, int count) {
+        return new WorkloadGenerator(SEED + 1).generateReservations(rooms, FIRST_DAY, count, DENSITY);
+    }
+
+    /**
+     * Gets the number of days covered by a data set.
+     *
+     * @param reservations the reservations, ordered by date
+     * @return the number of days
+     */
+    public static int days(List<Reservation> reservations) {
+        if (reservations.isEmpty()) {
+            return 1;
+        }
+        return (int) ChronoUnit.DAYS.between(FIRST_DAY, reservations.get(reservations.size() - 1).getDate()) + 1;
+    }
+}
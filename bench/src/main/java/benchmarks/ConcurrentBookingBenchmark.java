@@ -0,0 +1,69 @@
+package benchmarks;
+
+import controllers.ReservationManager;
+import models.reservation.Reservation;
+import models.reservation.ReservationType;
+import models.room.Room;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Benchmarks of concurrent booking, run on all cores by default (override with {@code -t}).
+ * Bookings of different rooms should scale with the number of threads, and
+ * attempts on a taken slot should fail without waiting.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+@Threads(Threads.MAX)
+public class ConcurrentBookingBenchmark {
+    private static final int ROOM_COUNT = 1000;
+
+    private ReservationManager manager;
+    private List<Room> rooms;
+    private Reservation taken;
+    private final AtomicInteger nextRoom = new AtomicInteger();
+
+    /**
+     * A thread's own room, so its bookings never conflict with other threads'.
+     */
+    @State(Scope.Thread)
+    public static class OwnRoom {
+        private Reservation reservation;
+
+        @Setup(Level.Trial)
+        public void setUp(ConcurrentBookingBenchmark benchmark) {
+            Room room = benchmark.rooms.get(benchmark.nextRoom.getAndIncrement() % ROOM_COUNT);
+            reservation = new Reservation(room, BenchmarkData.FIRST_DAY, LocalTime.of(8, 0), LocalTime.of(10, 0),
+                "Benchmark", ReservationType.OTHER);
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        rooms = BenchmarkData.rooms(ROOM_COUNT);
+        manager = new ReservationManager();
+        manager.addRooms(rooms);
+        taken = new Reservation(rooms.get(0), BenchmarkData.FIRST_DAY.plusDays(1), LocalTime.of(8, 0),
+            LocalTime.of(10, 0), "Benchmark", ReservationType.OTHER);
+        manager.addReservation(taken);
+    }
+
+    @Benchmark
+    public boolean bookAndCancelOwnRoom(OwnRoom own) {
+        manager.addReservation(own.reservation);
+        return manager.removeReservation(own.reservation);
+    }
+
+    @Benchmark
+    public boolean bookTakenSlot() {
+        return manager.addReservation(taken);
+    }
+}
@@ -0,0 +1,74 @@
+package benchmarks;
+
+import controllers.FileManager;
+import controllers.ReservationFileFormat;
+import controllers.ReservationManager;
+import models.reservation.Reservation;
+import models.room.Room;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of saving and loading reservation files in both formats.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class FileManagerBenchmark {
+    @Param({"1000", "100000", "10000000"})
+    public int reservationCount;
+
+    @Param({"10", "10000"})
+    public int roomCount;
+
+    @Param({"TEXT", "BINARY"})
+    public ReservationFileFormat format;
+
+    private final FileManager fileManager = new FileManager();
+    private ReservationManager manager;
+    private List<Reservation> reservations;
+    private Path directory;
+    private String savedFile;
+    private String scratchFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        List<Room> rooms = BenchmarkData.rooms(roomCount);
+        manager = new ReservationManager();
+        manager.addRooms(rooms);
+        reservations = BenchmarkData.reservations(rooms, reservationCount);
+
+        directory = Files.createTempDirectory("roommanager-bench");
+        savedFile = directory.resolve("saved.resv").toString();
+        scratchFile = directory.resolve("scratch.resv").toString();
+        fileManager.saveReservations(savedFile, reservations, format);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (var files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Benchmark
+    public long saveReservations() {
+        return fileManager.saveReservations(scratchFile, reservations, format);
+    }
+
+    @Benchmark
+    public List<Reservation> loadReservations() {
+        return fileManager.loadReservations(savedFile, manager);
+    }
+}
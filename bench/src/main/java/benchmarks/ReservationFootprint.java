@@ -0,0 +1,81 @@
+package benchmarks;
+
+import controllers.FileManager;
+import controllers.ReservationFileFormat;
+import controllers.ReservationManager;
+import models.reservation.Reservation;
+import models.room.Room;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Reports the heap retained per reservation after loading a file in each format,
+ * and when each reservation is built from its own parsed values.
+ * Run with {@code java -cp target/benchmarks.jar benchmarks.ReservationFootprint [reservations]}.
+ */
+public final class ReservationFootprint {
+    private static final int DEFAULT_COUNT = 1_000_000;
+    private static final int ROOM_COUNT = 1000;
+
+    private ReservationFootprint() {}
+
+    public static void main(String[] args) throws IOException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_COUNT;
+        List<Room> rooms = BenchmarkData.rooms(ROOM_COUNT);
+        ReservationManager manager = new ReservationManager();
+        manager.addRooms(rooms);
+        FileManager fileManager = new FileManager();
+
+        List<Reservation> generated = BenchmarkData.reservations(rooms, count);
+        Path directory = Files.createTempDirectory("footprint");
+        try {
+            for (ReservationFileFormat format : ReservationFileFormat.values()) {
+                String file = directory.resolve(format.name().toLowerCase()).toString();
+                fileManager.saveReservations(file, generated, format);
+            }
+            for (ReservationFileFormat format : ReservationFileFormat.values()) {
+                String file = directory.resolve(format.name().toLowerCase()).toString();
+                report(format.name(), () -> fileManager.loadReservations(file, manager));
+            }
+            // Built from freshly parsed fields without sharing names, like bookings made through the service
+            report("PARSED", () -> generated.stream()
+                .map(r -> new Reservation(r.getRoom(), LocalDate.parse(r.getDate().toString()),
+                    LocalTime.parse(r.getStartTime().toString()), LocalTime.parse(r.getEndTime().toString()),
+                    new String(r.getReservedBy()), r.getType()))
+                .toList());
+        } finally {
+            try (var files = Files.list(directory)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(directory);
+        }
+    }
+
+    /**
+     * Prints the heap retained by the reservations of a list, excluding the list itself.
+     */
+    private static void report(String label, Supplier<List<Reservation>> load) {
+        long before = usedHeap();
+        List<Reservation> loaded = load.get();
+        long after = usedHeap();
+        // The list holds one compressed reference per reservation
+        double perReservation = (double) (after - before) / loaded.size() - 4;
+        System.out.printf("%-6s %,d reservations, %.1f bytes per reservation%n", label, loaded.size(), perReservation);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,75 @@
+package benchmarks;
+
+import controllers.ReservationManager;
+import models.reservation.Reservation;
+import models.room.Room;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the booking core: adding reservations and per-date/per-room queries.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class ReservationManagerBenchmark {
+    @Param({"1000", "100000", "10000000"})
+    public int reservationCount;
+
+    @Param({"10", "10000"})
+    public int roomCount;
+
+    private ReservationManager manager;
+    private List<Room> rooms;
+    private int days;
+    private Reservation free;
+    private Reservation conflicting;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        rooms = BenchmarkData.rooms(roomCount);
+        manager = new ReservationManager();
+        manager.addRooms(rooms);
+        List<Reservation> reservations = BenchmarkData.reservations(rooms, reservationCount);
+        manager.loadReservations(reservations);
+        days = BenchmarkData.days(reservations);
+
+        LocalDate freeDay = BenchmarkData.FIRST_DAY.plusDays(days + 1L);
+        free = new Reservation(rooms.get(0), freeDay, LocalTime.of(8, 0), LocalTime.of(10, 0), "Benchmark", null);
+        Reservation booked = reservations.get(0);
+        conflicting = new Reservation(booked.getRoom(), booked.getDate(), booked.getStartTime(), booked.getEndTime(),
+            "Benchmark", null);
+    }
+
+    @Benchmark
+    public boolean addThenRemoveReservation() {
+        manager.addReservation(free);
+        return manager.removeReservation(free);
+    }
+
+    @Benchmark
+    public boolean addConflictingReservation() {
+        return manager.addReservation(conflicting);
+    }
+
+    @Benchmark
+    public List<Reservation> getReservationsForDate() {
+        cursor = (cursor + 1) % days;
+        return manager.getReservationsForDate(BenchmarkData.FIRST_DAY.plusDays(cursor));
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<Reservation> getReservationsForRoom() {
+        cursor = (cursor + 1) % roomCount;
+        return manager.getReservationsForRoom(rooms.get(cursor));
+    }
+}
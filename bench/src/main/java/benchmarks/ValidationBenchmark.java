@@ -0,0 +1,62 @@
+package benchmarks;
+
+import controllers.ReservationManager;
+import models.reservation.Reservation;
+import models.reservation.ReservationType;
+import models.room.Room;
+import org.openjdk.jmh.annotations.*;
+import utils.ValidationUtils;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the validation rules used when booking.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class ValidationBenchmark {
+    @Param({"1000", "100000", "10000000"})
+    public int reservationCount;
+
+    @Param({"10", "10000"})
+    public int roomCount;
+
+    private ReservationManager manager;
+    private List<Reservation> dayReservations;
+    private Reservation candidate;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<Room> rooms = BenchmarkData.rooms(roomCount);
+        manager = new ReservationManager();
+        manager.addRooms(rooms);
+        manager.loadReservations(BenchmarkData.reservations(rooms, reservationCount));
+
+        LocalDate date = BenchmarkData.FIRST_DAY;
+        dayReservations = manager.getReservationsForDate(date);
+        candidate = new Reservation(rooms.get(rooms.size() - 1), date, LocalTime.of(9, 0), LocalTime.of(11, 0),
+            "Benchmark", ReservationType.EXAM);
+    }
+
+    @Benchmark
+    public ValidationUtils.ValidationResult validateNoConflictAgainstList() {
+        return ValidationUtils.validateNoConflict(candidate, dayReservations, null);
+    }
+
+    @Benchmark
+    public ValidationUtils.ValidationResult validateNoConflictAgainstManager() {
+        return ValidationUtils.validateNoConflict(candidate, manager, null);
+    }
+
+    @Benchmark
+    public ValidationUtils.ValidationResult validateReservedBy() {
+        return ValidationUtils.validateReservedBy("Prof. Jane Doe-Smith");
+    }
+}
@@ -3,19 +3,66 @@ package app;
 import controllers.ReservationManager;
 import controllers.FileManager;
 import controllers.AutoSaveManager;
+import controllers.BookingServer;
+import controllers.BulkImporter;
+import controllers.ReservationColumns;
+import controllers.ShardedReservationStore;
+import models.reservation.ReservationType;
+import models.room.Room;
 import views.MainWindow;
 import utils.UIUtils;
+import utils.metrics.Metrics;
+import utils.metrics.MetricsMBean;
 
 import javax.swing.*;
 
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Paths;
+import java.time.YearMonth;
+import java.util.Map;
+
 /**
  * The main entry point for the Room Manager application.
+ * <p>
+ * Started with {@code --import <csv file> <output file> [rooms file]} it
+ * imports reservations without a user interface instead. With
+ * {@code --store <directory> [memory budget]} reservations are kept in a
+ * month-partitioned store instead of the auto-save file, and
+ * {@code --shard <reservation file> <directory> [rooms file]} creates such a
+ * store from a reservation file. {@code --serve <port> [store directory]}
+ * runs a local HTTP/JSON booking service instead of the user interface, and
+ * {@code --report <reservation file> [rooms file]} prints the reserved hours
+ * of a reservation file by type, by month and for the busiest rooms.
  */
 public class Main {
+    private static final int REPORT_ROOMS = 10;
+
     public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("--import")) {
+            runImport(args);
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--shard")) {
+            runShard(args);
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--serve")) {
+            runServer(args);
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--report")) {
+            runReport(args);
+            return;
+        }
+
         // Set the look and feel to the system's look and feel
     	UIUtils.setLookAndFeel();
 
+        // Expose the operation metrics over JMX
+        MetricsMBean.register(Metrics.getRegistry());
+
         // Initialize the reservation manager and file manager
         ReservationManager reservationManager = new ReservationManager();
         FileManager fileManager = new FileManager();
@@ -23,6 +70,22 @@ public class Main {
         // Load rooms from the file
         fileManager.loadRooms(reservationManager);
 
+        if (args.length > 0 && args[0].equals("--store")) {
+            if (args.length < 2 || args.length > 3) {
+                System.out.println("Usage: --store <directory> [memory budget]");
+                System.exit(2);
+            }
+            // Only the months around the viewed date are loaded from the store
+            int budget = args.length == 3 ? Integer.parseInt(args[2]) : ShardedReservationStore.DEFAULT_MEMORY_BUDGET;
+            ShardedReservationStore store = openStore(args[1], budget, reservationManager, fileManager);
+            SwingUtilities.invokeLater(() -> {
+                MainWindow mainWindow = new MainWindow(reservationManager, fileManager);
+                mainWindow.setVisible(true);
+            });
+            Runtime.getRuntime().addShutdownHook(new Thread(store::close));
+            return;
+        }
+
         // Initialize the auto-save manager
         AutoSaveManager autoSaveManager = new AutoSaveManager(reservationManager, fileManager);
         autoSaveManager.startAutoSave();
@@ -36,4 +99,191 @@ public class Main {
         // Add a shutdown hook to stop the auto-save manager
         Runtime.getRuntime().addShutdownHook(new Thread(autoSaveManager::shutdown));
     }
-}
\ No newline at end of file
+
+    /**
+     * Opens a month-partitioned store, exiting if it cannot be read.
+     *
+     * @param directory the store directory
+     * @param budget the memory budget, in reservations
+     * @param reservationManager the reservation manager
+     * @param fileManager the file manager
+     * @return the open store
+     */
+    private static ShardedReservationStore openStore(String directory, int budget,
+                                                     ReservationManager reservationManager, FileManager fileManager) {
+        ShardedReservationStore store = new ShardedReservationStore(Paths.get(directory),
+            reservationManager, fileManager, budget);
+        try {
+            store.open();
+        } catch (IOException e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+        return store;
+    }
+
+    /**
+     * Runs the booking service on the loopback interface until the process is stopped.
+     * Reservations are kept in the given store, or in the auto-save session otherwise.
+     *
+     * @param args the command line arguments
+     */
+    private static void runServer(String[] args) {
+        if (args.length < 2 || args.length > 3) {
+            System.out.println("Usage: --serve <port> [store directory]");
+            System.exit(2);
+        }
+
+        // The JDK server writes headers and body separately; without TCP_NODELAY the body waits for a delayed ACK
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+
+        MetricsMBean.register(Metrics.getRegistry());
+        ReservationManager reservationManager = new ReservationManager();
+        FileManager fileManager = new FileManager();
+        fileManager.loadRooms(reservationManager);
+
+        Runnable closeStorage;
+        if (args.length == 3) {
+            ShardedReservationStore store = openStore(args[2], ShardedReservationStore.DEFAULT_MEMORY_BUDGET,
+                reservationManager, fileManager);
+            closeStorage = store::close;
+        } else {
+            AutoSaveManager autoSaveManager = new AutoSaveManager(reservationManager, fileManager);
+            autoSaveManager.startAutoSave();
+            closeStorage = autoSaveManager::shutdown;
+        }
+
+        try {
+            BookingServer server = new BookingServer(reservationManager,
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(args[1])));
+            server.start();
+            // Stop taking requests before the last changes are written
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                server.stop(1);
+                closeStorage.run();
+            }));
+            System.out.println("Booking service listening on http://localhost:" + server.getAddress().getPort() + "/.");
+        } catch (IOException e) {
+            e.printStackTrace();
+            closeStorage.run();
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Runs a headless bulk import.
+     *
+     * @param args the command line arguments
+     */
+    private static void runImport(String[] args) {
+        if (args.length < 3 || args.length > 4) {
+            System.out.println("Usage: --import <csv file> <output file> [rooms file]");
+            System.exit(2);
+        }
+
+        ReservationManager reservationManager = new ReservationManager();
+        FileManager fileManager = new FileManager();
+        try {
+            // Load rooms from the given file or the default one
+            if (args.length == 4) {
+                fileManager.loadRooms(args[3], reservationManager);
+            } else {
+                fileManager.loadRooms(reservationManager);
+            }
+
+            BulkImporter.ImportResult result = new BulkImporter(reservationManager, fileManager)
+                .importFile(args[1], args[2]);
+            System.out.println("Imported " + result.getImported() + " reservations, rejected "
+                + result.getRejected() + " in " + result.getElapsedMillis() + " ms ("
+                + result.getRecordsPerSecond() + " records/s).");
+            System.out.println("Rejects written to " + result.getRejectsFile() + ".");
+            if (result.getBytesWritten() < 0) {
+                System.out.println("Could not write " + args[2] + ".");
+                System.exit(1);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Splits a reservation file into a new month-partitioned store.
+     *
+     * @param args the command line arguments
+     */
+    private static void runShard(String[] args) {
+        if (args.length < 3 || args.length > 4) {
+            System.out.println("Usage: --shard <reservation file> <directory> [rooms file]");
+            System.exit(2);
+        }
+
+        ReservationManager reservationManager = new ReservationManager();
+        FileManager fileManager = new FileManager();
+        try {
+            // Load rooms from the given file or the default one
+            if (args.length == 4) {
+                fileManager.loadRooms(args[3], reservationManager);
+            } else {
+                fileManager.loadRooms(reservationManager);
+            }
+
+            ShardedReservationStore store = new ShardedReservationStore(Paths.get(args[2]),
+                reservationManager, fileManager, ShardedReservationStore.DEFAULT_MEMORY_BUDGET);
+            int imported = store.importFile(args[1]);
+            System.out.println("Stored " + imported + " reservations in " + store.getManifest().size()
+                + " monthly shards in " + args[2] + ".");
+        } catch (IOException e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Prints the reserved hours of a reservation file by type, by month and
+     * for the busiest rooms.
+     *
+     * @param args the command line arguments
+     */
+    private static void runReport(String[] args) {
+        if (args.length < 2 || args.length > 3) {
+            System.out.println("Usage: --report <reservation file> [rooms file]");
+            System.exit(2);
+        }
+
+        ReservationManager reservationManager = new ReservationManager();
+        FileManager fileManager = new FileManager();
+        try {
+            // Load rooms from the given file or the default one
+            if (args.length == 3) {
+                fileManager.loadRooms(args[2], reservationManager);
+            } else {
+                fileManager.loadRooms(reservationManager);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+        ReservationColumns columns = new ReservationColumns(reservationManager);
+        reservationManager.loadReservations(args[1]);
+
+        long start = System.nanoTime();
+        Map<ReservationType, Long> byType = columns.getHoursByType();
+        Map<YearMonth, Long> byMonth = columns.getHoursByMonth();
+        Map<Room, Long> byRoom = columns.getHoursByRoom();
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        System.out.println("Hours by type:");
+        byType.forEach((type, hours) -> System.out.println("  " + type.getDisplayName() + ": " + hours));
+        System.out.println("Hours by month:");
+        byMonth.forEach((month, hours) -> System.out.println("  " + month + ": " + hours));
+        System.out.println("Busiest rooms:");
+        byRoom.entrySet().stream()
+            .sorted(Map.Entry.<Room, Long>comparingByValue().reversed())
+            .limit(REPORT_ROOMS)
+            .forEach(entry -> System.out.println("  " + entry.getKey().getName() + ": " + entry.getValue()));
+        System.out.println("Summed " + columns.getRowCount() + " reservations in " + elapsedMillis + " ms.");
+    }
+}
@@ -1,18 +1,41 @@
 package controllers;
 
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
+import models.reservation.Reservation;
+import models.reservation.ReservationSeries;
+
+import utils.metrics.Counter;
+import utils.metrics.LatencyHistogram;
+import utils.metrics.Metrics;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
- * Manages the auto-saving of reservations at regular intervals.
+ * Manages the auto-saving of reservations.
+ * <p>
+ * Every change is appended to a journal as it happens. The first change after
+ * an idle period schedules a compaction of the journal into the auto-save
+ * snapshot at the end of a debounce window, so a burst of edits results in a
+ * single write and idle periods cost nothing.
  */
-public class AutoSaveManager {
-    private static final int SAVE_INTERVAL_MINUTES = 1;
+public class AutoSaveManager implements ReservationListener {
+    private static final int SAVE_DELAY_MINUTES = 1;
     private static final String AUTO_SAVE_FILE = "autosave";
-    private final ScheduledExecutorService scheduler;
+    private final ScheduledThreadPoolExecutor scheduler;
     private final ReservationManager reservationManager;
-    private final FileManager fileManager;
+    private final ReservationJournal journal;
+    private final AtomicBoolean saveScheduled;
+    private volatile long savedGeneration;
+    private volatile long lastSaveBytes;
+    private volatile long lastSaveMillis;
+    private final Counter runs = Metrics.getRegistry().counter("autosave.runs");
+    private final Counter skipped = Metrics.getRegistry().counter("autosave.skipped");
+    private final Counter failures = Metrics.getRegistry().counter("autosave.failures");
+    private final Counter savedBytes = Metrics.getRegistry().counter("autosave.bytes");
+    private final LatencyHistogram latency = Metrics.getRegistry().histogram("autosave.latency");
 
     /**
      * Constructs an AutoSaveManager.
@@ -22,33 +45,130 @@ public class AutoSaveManager {
      */
     public AutoSaveManager(ReservationManager reservationManager, FileManager fileManager) {
         this.reservationManager = reservationManager;
-        this.fileManager = fileManager;
-        this.scheduler = Executors.newSingleThreadScheduledExecutor();
+        this.journal = new ReservationJournal(AUTO_SAVE_FILE, reservationManager, fileManager);
+        this.scheduler = new ScheduledThreadPoolExecutor(1);
+        this.scheduler.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        this.saveScheduled = new AtomicBoolean();
     }
 
     /**
      * Starts the auto-save process.
+     * The reservations of the previous session are restored from the
+     * snapshot and the journal before journaling starts.
      */
     public void startAutoSave() {
-        scheduler.scheduleAtFixedRate(
-            this::performAutoSave,
-            SAVE_INTERVAL_MINUTES,
-            SAVE_INTERVAL_MINUTES,
-            TimeUnit.MINUTES
-        );
+        try {
+            journal.open();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        savedGeneration = reservationManager.getGeneration();
+        reservationManager.addReservationListener(this);
+    }
+
+    /**
+     * Gets the size of the last auto-save snapshot.
+     *
+     * @return the number of bytes written by the last auto-save
+     */
+    public long getLastSaveBytes() {
+        return lastSaveBytes;
+    }
+
+    /**
+     * Gets the duration of the last auto-save.
+     *
+     * @return the duration of the last auto-save in milliseconds
+     */
+    public long getLastSaveMillis() {
+        return lastSaveMillis;
+    }
+
+    @Override
+    public void reservationAdded(Reservation reservation) {
+        scheduleSave();
+    }
+
+    @Override
+    public void reservationRemoved(Reservation reservation) {
+        scheduleSave();
+    }
+
+    @Override
+    public void reservationUpdated(Reservation previous, Reservation updated) {
+        scheduleSave();
+    }
+
+    @Override
+    public void reservationsLoaded(List<Reservation> reservations) {
+        scheduleSave();
+    }
+
+    @Override
+    public void reservationsAppended(List<Reservation> reservations, String source) {
+        scheduleSave();
+    }
+
+    @Override
+    public void reservationsEvicted(List<Reservation> reservations) {
+        // Evicted reservations are still stored, nothing changed
+    }
+
+    @Override
+    public void seriesAdded(ReservationSeries series) {
+        scheduleSave();
+    }
+
+    @Override
+    public void seriesRemoved(ReservationSeries series) {
+        scheduleSave();
+    }
+
+    @Override
+    public void seriesUpdated(ReservationSeries previous, ReservationSeries updated) {
+        scheduleSave();
+    }
+
+    /**
+     * Schedules an auto-save at the end of the debounce window, unless one is already pending.
+     */
+    private void scheduleSave() {
+        if (saveScheduled.compareAndSet(false, true) && !scheduler.isShutdown()) {
+            scheduler.schedule(this::performAutoSave, SAVE_DELAY_MINUTES, TimeUnit.MINUTES);
+        }
     }
 
     /**
-     * Performs the auto-save operation.
+     * Performs the auto-save operation by compacting the journal,
+     * skipping it if nothing changed since the last save.
      */
     private void performAutoSave() {
-        fileManager.saveReservations(AUTO_SAVE_FILE, reservationManager.getAllReservations());
+        saveScheduled.set(false);
+        long generation = reservationManager.getGeneration();
+        if (generation == savedGeneration) {
+            skipped.increment();
+            return;
+        }
+        runs.increment();
+        try {
+            long start = System.nanoTime();
+            long bytes = journal.compact();
+            latency.recordSince(start);
+            lastSaveMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            lastSaveBytes = bytes;
+            savedBytes.add(bytes);
+            savedGeneration = generation;
+        } catch (IOException e) {
+            e.printStackTrace();
+            failures.increment();
+        }
     }
 
     /**
-     * Shuts down the auto-save process.
+     * Shuts down the auto-save process, compacting any pending changes.
      */
     public void shutdown() {
+        reservationManager.removeReservationListener(this);
         scheduler.shutdown();
         try {
             if (!scheduler.awaitTermination(60, TimeUnit.SECONDS)) {
@@ -57,5 +177,7 @@ public class AutoSaveManager {
         } catch (InterruptedException e) {
             scheduler.shutdownNow();
         }
+        performAutoSave();
+        journal.close();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,401 @@
+package controllers;
+
+import models.reservation.Recurrence;
+import models.reservation.Reservation;
+import models.reservation.ReservationSeries;
+import models.reservation.ReservationType;
+import models.room.Room;
+
+import java.io.*;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Reads and writes the binary (version 2) reservation file format.
+ * <p>
+ * Layout, big-endian:
+ * <pre>
+ * header   magic "RESV", version u16, flags u16,
+ *          room count i32, name count i32, record count i32
+ * rooms    room count x (length i32, UTF-8 bytes)
+ * names    name count x (length i32, UTF-8 bytes)
+ * records  record count x 16 bytes:
+ *          epoch day i32, start hour u8, end hour u8, type ordinal u8,
+ *          padding u8, room id i32, name id i32
+ * series   only if flags has bit 0 set: series count i32, then per series
+ *          room id i32, name id i32, first epoch day i32, last epoch day i32,
+ *          start hour u8, end hour u8, type ordinal u8, interval weeks u8,
+ *          exception count i32, exception count x epoch day i32
+ * </pre>
+ * Room and name ids index the string tables; a name id of -1 and a type of
+ * 255 stand for missing values.
+ */
+public class BinaryReservationCodec {
+    private static final byte[] MAGIC = {'R', 'E', 'S', 'V'};
+    private static final short VERSION = 2;
+    private static final int HEADER_SIZE = 20;
+    private static final int RECORD_SIZE = 16;
+    private static final int NO_NAME = -1;
+    private static final int NO_TYPE = 0xFF;
+    private static final short FLAG_SERIES = 1;
+    private static final int OPENING_HOUR = 8;
+    private static final int CLOSING_HOUR = 18;
+
+    /**
+     * Checks whether a file starts with the binary format magic.
+     *
+     * @param file the file
+     * @return true if the file is in the binary format, false otherwise
+     * @throws IOException if the file cannot be read
+     */
+    public static boolean isBinary(Path file) throws IOException {
+        try (InputStream input = new FileInputStream(file.toFile())) {
+            return Arrays.equals(input.readNBytes(MAGIC.length), MAGIC);
+        }
+    }
+
+    /**
+     * Writes reservations in the binary format.
+     *
+     * @param output the stream to write to
+     * @param reservations the reservations to write
+     * @throws IOException if the stream cannot be written
+     */
+    public static void write(OutputStream output, List<Reservation> reservations) throws IOException {
+        write(output, reservations, List.of());
+    }
+
+    /**
+     * Writes reservations and reservation series in the binary format.
+     *
+     * @param output the stream to write to
+     * @param reservations the reservations to write
+     * @param series the reservation series to write
+     * @throws IOException if the stream cannot be written
+     */
+    public static void write(OutputStream output, List<Reservation> reservations, List<ReservationSeries> series) throws IOException {
+        Map<String, Integer> roomIds = new LinkedHashMap<>();
+        Map<String, Integer> nameIds = new LinkedHashMap<>();
+        for (Reservation reservation : reservations) {
+            roomIds.putIfAbsent(reservation.getRoom().getName(), roomIds.size());
+            if (reservation.getReservedBy() != null) {
+                nameIds.putIfAbsent(reservation.getReservedBy(), nameIds.size());
+            }
+        }
+        for (ReservationSeries reservationSeries : series) {
+            roomIds.putIfAbsent(reservationSeries.getRoom().getName(), roomIds.size());
+            if (reservationSeries.getReservedBy() != null) {
+                nameIds.putIfAbsent(reservationSeries.getReservedBy(), nameIds.size());
+            }
+        }
+
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(output));
+        data.write(MAGIC);
+        data.writeShort(VERSION);
+        data.writeShort(series.isEmpty() ? 0 : FLAG_SERIES);
+        data.writeInt(roomIds.size());
+        data.writeInt(nameIds.size());
+        data.writeInt(reservations.size());
+        for (String room : roomIds.keySet()) {
+            writeString(data, room);
+        }
+        for (String name : nameIds.keySet()) {
+            writeString(data, name);
+        }
+        for (Reservation reservation : reservations) {
+            data.writeInt(reservation.getEpochDay());
+            data.writeByte(reservation.getStartHour());
+            data.writeByte(reservation.getEndHour());
+            data.writeByte(reservation.getType() == null ? NO_TYPE : reservation.getType().ordinal());
+            data.writeByte(0);
+            data.writeInt(roomIds.get(reservation.getRoom().getName()));
+            data.writeInt(reservation.getReservedBy() == null ? NO_NAME : nameIds.get(reservation.getReservedBy()));
+        }
+        if (!series.isEmpty()) {
+            data.writeInt(series.size());
+            for (ReservationSeries reservationSeries : series) {
+                data.writeInt(roomIds.get(reservationSeries.getRoom().getName()));
+                data.writeInt(reservationSeries.getReservedBy() == null ? NO_NAME : nameIds.get(reservationSeries.getReservedBy()));
+                data.writeInt((int) reservationSeries.getFirstDate().toEpochDay());
+                data.writeInt((int) reservationSeries.getLastDate().toEpochDay());
+                data.writeByte(reservationSeries.getStartTime().getHour());
+                data.writeByte(reservationSeries.getEndTime().getHour());
+                data.writeByte(reservationSeries.getType() == null ? NO_TYPE : reservationSeries.getType().ordinal());
+                data.writeByte(reservationSeries.getRecurrence().getIntervalWeeks());
+                data.writeInt(reservationSeries.getExceptions().size());
+                for (LocalDate exception : reservationSeries.getExceptions()) {
+                    data.writeInt((int) exception.toEpochDay());
+                }
+            }
+        }
+        data.flush();
+    }
+
+    /**
+     * Reads the number of reservation records from the header of a binary file,
+     * without reading the records.
+     *
+     * @param file the file
+     * @return the number of records
+     * @throws IOException if the file cannot be read or is not a valid binary file
+     */
+    public static int readRecordCount(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining()) {
+                if (channel.read(header) < 0) {
+                    throw new IOException("Truncated reservation file header");
+                }
+            }
+            return header.getInt(HEADER_SIZE - Integer.BYTES);
+        }
+    }
+
+    /**
+     * Loads a binary reservation file through a memory mapping.
+     * Records whose room is unknown to the manager, without a type or
+     * outside business hours are skipped.
+     *
+     * @param file the file
+     * @param reservationManager the reservation manager used to resolve rooms
+     * @return the loaded reservations
+     * @throws IOException if the file cannot be read or is not a valid binary file
+     */
+    public static List<Reservation> read(Path file, ReservationManager reservationManager) throws IOException {
+        List<Reservation> reservations = new ArrayList<>();
+        read(file, reservationManager, reservations::add);
+        return reservations;
+    }
+
+    /**
+     * Streams a binary reservation file, handing the reservations to a sink in batches.
+     *
+     * @param file the file
+     * @param reservationManager the reservation manager used to resolve rooms
+     * @param batchSize the maximum number of reservations per batch
+     * @param sink the consumer receiving each batch
+     * @throws IOException if the file cannot be read or is not a valid binary file
+     */
+    public static void stream(Path file, ReservationManager reservationManager, int batchSize,
+                              Consumer<List<Reservation>> sink) throws IOException {
+        TextReservationParser.BatchingConsumer batches = new TextReservationParser.BatchingConsumer(batchSize, sink);
+        read(file, reservationManager, batches);
+        batches.flush();
+    }
+
+    /**
+     * Maps a binary file and decodes its reservations one by one.
+     */
+    private static void read(Path file, ReservationManager reservationManager, Consumer<Reservation> sink) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Reservation file too large to map: " + file);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            read(buffer, reservationManager, sink);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated reservation records", e);
+        }
+    }
+
+    /**
+     * Reads the reservation series of a binary file.
+     * Series whose room is unknown to the manager, without a type or outside
+     * business hours are skipped.
+     *
+     * @param file the file
+     * @param reservationManager the reservation manager used to resolve rooms
+     * @return the loaded series
+     * @throws IOException if the file cannot be read or is not a valid binary file
+     */
+    public static List<ReservationSeries> readSeries(Path file, ReservationManager reservationManager) throws IOException {
+        List<ReservationSeries> series = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Reservation file too large to map: " + file);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            Header header = readHeader(buffer, reservationManager);
+            if ((header.flags & FLAG_SERIES) == 0) {
+                return series;
+            }
+            buffer.position(buffer.position() + header.recordCount * RECORD_SIZE);
+            ReservationType[] types = ReservationType.values();
+            int seriesCount = readCount(buffer, "series");
+            for (int i = 0; i < seriesCount; i++) {
+                Room room = header.rooms[checkId(buffer.getInt(), header.rooms.length, "room")];
+                int nameId = buffer.getInt();
+                if (nameId != NO_NAME) {
+                    checkId(nameId, header.names.length, "name");
+                }
+                LocalDate firstDate = LocalDate.ofEpochDay(buffer.getInt());
+                LocalDate lastDate = LocalDate.ofEpochDay(buffer.getInt());
+                int startHour = buffer.get() & 0xFF;
+                int endHour = buffer.get() & 0xFF;
+                int type = buffer.get() & 0xFF;
+                int intervalWeeks = buffer.get() & 0xFF;
+                checkHours(startHour, endHour);
+                if (type != NO_TYPE) {
+                    checkId(type, types.length, "type");
+                }
+                List<LocalDate> exceptions = new ArrayList<>();
+                int exceptionCount = readCount(buffer, "exception");
+                for (int j = 0; j < exceptionCount; j++) {
+                    exceptions.add(LocalDate.ofEpochDay(buffer.getInt()));
+                }
+                if (room == null || type == NO_TYPE || !isWithinBusinessHours(startHour, endHour)) {
+                    continue;
+                }
+                series.add(new ReservationSeries(room, firstDate, lastDate,
+                    intervalWeeks == Recurrence.BIWEEKLY.getIntervalWeeks() ? Recurrence.BIWEEKLY : Recurrence.WEEKLY,
+                    LocalTime.of(startHour, 0), LocalTime.of(endHour, 0),
+                    nameId == NO_NAME ? null : header.names[nameId], types[type], exceptions));
+            }
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated reservation series", e);
+        }
+        return series;
+    }
+
+    /**
+     * The header and string tables of a binary file.
+     */
+    private static class Header {
+        short flags;
+        int recordCount;
+        Room[] rooms;
+        String[] names;
+    }
+
+    /**
+     * Reads the header and string tables, leaving the buffer at the first record.
+     */
+    private static Header readHeader(ByteBuffer buffer, ReservationManager reservationManager) throws IOException {
+        if (buffer.remaining() < HEADER_SIZE) {
+            throw new IOException("Truncated reservation file header");
+        }
+        byte[] magic = new byte[MAGIC.length];
+        buffer.get(magic);
+        short version = buffer.getShort();
+        Header header = new Header();
+        header.flags = buffer.getShort();
+        if (!Arrays.equals(magic, MAGIC) || version != VERSION) {
+            throw new IOException("Unsupported reservation file version " + version);
+        }
+        int roomCount = buffer.getInt();
+        int nameCount = buffer.getInt();
+        header.recordCount = buffer.getInt();
+        if (roomCount < 0 || nameCount < 0 || header.recordCount < 0
+                || (long) roomCount + nameCount > buffer.remaining() / Integer.BYTES) {
+            throw new IOException("Corrupt reservation file header");
+        }
+
+        header.rooms = new Room[roomCount];
+        for (int i = 0; i < roomCount; i++) {
+            header.rooms[i] = reservationManager.getRoom(readString(buffer));
+        }
+        header.names = new String[nameCount];
+        for (int i = 0; i < nameCount; i++) {
+            header.names[i] = readString(buffer);
+        }
+        if (buffer.remaining() < (long) header.recordCount * RECORD_SIZE) {
+            throw new IOException("Truncated reservation records");
+        }
+        return header;
+    }
+
+    /**
+     * Decodes reservations from a buffer holding a whole binary file.
+     */
+    private static void read(ByteBuffer buffer, ReservationManager reservationManager, Consumer<Reservation> sink) throws IOException {
+        Header header = readHeader(buffer, reservationManager);
+        int recordCount = header.recordCount;
+        Room[] rooms = header.rooms;
+        String[] names = header.names;
+
+        ReservationType[] types = ReservationType.values();
+        for (int i = 0; i < recordCount; i++) {
+            int day = buffer.getInt();
+            int startHour = buffer.get() & 0xFF;
+            int endHour = buffer.get() & 0xFF;
+            int type = buffer.get() & 0xFF;
+            buffer.get(); // padding
+            int roomId = checkId(buffer.getInt(), rooms.length, "room");
+            int nameId = buffer.getInt();
+            if (nameId != NO_NAME) {
+                checkId(nameId, names.length, "name");
+            }
+            if (type != NO_TYPE) {
+                checkId(type, types.length, "type");
+            }
+            checkHours(startHour, endHour);
+            if (rooms[roomId] == null || type == NO_TYPE || !isWithinBusinessHours(startHour, endHour)) {
+                // Like the text format and the series, records that cannot be booked are dropped
+                continue;
+            }
+            sink.accept(new Reservation(rooms[roomId], day, startHour, endHour,
+                nameId == NO_NAME ? null : names[nameId], types[type]));
+        }
+    }
+
+    private static void writeString(DataOutputStream data, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        data.writeInt(bytes.length);
+        data.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) throws IOException {
+        int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IOException("Corrupt string length " + length);
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads a count that must fit in the rest of the buffer, at least one int per item.
+     */
+    private static int readCount(ByteBuffer buffer, String what) throws IOException {
+        int count = buffer.getInt();
+        if (count < 0 || count > buffer.remaining() / Integer.BYTES) {
+            throw new IOException("Corrupt " + what + " count " + count);
+        }
+        return count;
+    }
+
+    /**
+     * Checks that an id read from a record indexes a table.
+     *
+     * @return the id
+     */
+    private static int checkId(int id, int tableSize, String what) throws IOException {
+        if (id < 0 || id >= tableSize) {
+            throw new IOException("Corrupt " + what + " id " + id);
+        }
+        return id;
+    }
+
+    private static void checkHours(int startHour, int endHour) throws IOException {
+        if (startHour >= endHour || endHour > 23) {
+            throw new IOException("Corrupt reservation hours " + startHour + "-" + endHour);
+        }
+    }
+
+    /**
+     * Checks that hours lie within business hours, the only slots the occupancy grid holds.
+     */
+    private static boolean isWithinBusinessHours(int startHour, int endHour) {
+        return startHour >= OPENING_HOUR && endHour <= CLOSING_HOUR;
+    }
+}
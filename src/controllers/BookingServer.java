@@ -0,0 +1,472 @@
+package controllers;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import models.reservation.AvailableSlot;
+import models.reservation.Reservation;
+import models.reservation.ReservationType;
+import models.room.Room;
+import models.room.RoomFeature;
+import models.room.RoomType;
+
+import utils.JsonUtils;
+import utils.ValidationUtils;
+import utils.metrics.Counter;
+import utils.metrics.LatencyHistogram;
+import utils.metrics.Metrics;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A local HTTP/JSON booking service over a {@link ReservationManager}.
+ * <p>
+ * The service lets several clients share the reservations of one manager:
+ * <ul>
+ *   <li>{@code GET /rooms[?type=&capacity=&features=]} lists the rooms</li>
+ *   <li>{@code GET /schedule?date=[&room=]} lists the reservations of a day</li>
+ *   <li>{@code GET /free?date=&duration=[&to=&type=&capacity=&features=&limit=]} finds free slots</li>
+ *   <li>{@code POST /reservations} books the slot of a JSON object with the
+ *       members room, date, start, end, reservedBy and type</li>
+ *   <li>{@code DELETE /reservations?room=&date=&start=} cancels a reservation</li>
+ * </ul>
+ * Each request is handled on its own pooled thread. Conflict detection
+ * relies on the manager, which claims the slots of a booking atomically, so
+ * of many concurrent attempts on the same slot exactly one gets
+ * {@code 201 Created} and the others {@code 409 Conflict}.
+ * <p>
+ * The JDK server writes the headers and the body of a response separately,
+ * so without {@code -Dsun.net.httpserver.nodelay=true} the body can wait for
+ * a delayed ACK. The property is read once per JVM; {@code Main} sets it
+ * before starting the service.
+ */
+public class BookingServer {
+    private static final int BACKLOG = 1024;
+    private static final int DEFAULT_FREE_SLOT_LIMIT = 50;
+    private static final int MAX_FREE_SLOT_LIMIT = 1000;
+
+    private final ReservationManager reservationManager;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Map<String, Map<String, Endpoint>> endpoints = new HashMap<>();
+    private final Counter requests = Metrics.getRegistry().counter("http.requests");
+    private final Counter clientErrors = Metrics.getRegistry().counter("http.errors.client");
+    private final Counter serverErrors = Metrics.getRegistry().counter("http.errors.server");
+    private final Counter booked = Metrics.getRegistry().counter("http.book.created");
+    private final Counter conflicts = Metrics.getRegistry().counter("http.book.conflict");
+
+    /**
+     * Handles the requests of one endpoint.
+     */
+    private interface Endpoint {
+        /**
+         * Handles a request.
+         *
+         * @param exchange the HTTP exchange
+         * @return the response
+         * @throws IOException if the request body cannot be read
+         */
+        Response handle(HttpExchange exchange) throws IOException;
+    }
+
+    /**
+     * A response status and JSON body.
+     */
+    private static class Response {
+        private final int status;
+        private final String body;
+
+        /**
+         * Constructs a Response.
+         *
+         * @param status the HTTP status
+         * @param body the JSON body, or null for an empty body
+         */
+        Response(int status, String body) {
+            this.status = status;
+            this.body = body;
+        }
+
+        static Response error(int status, String message) {
+            return new Response(status, "{\"error\":" + JsonUtils.quote(message) + "}");
+        }
+    }
+
+    /**
+     * Constructs a BookingServer.
+     *
+     * @param reservationManager the reservation manager
+     * @param address the address to listen on
+     * @throws IOException if the address cannot be bound
+     */
+    public BookingServer(ReservationManager reservationManager, InetSocketAddress address) throws IOException {
+        this.reservationManager = reservationManager;
+        this.server = HttpServer.create(address, BACKLOG);
+        AtomicInteger threadCount = new AtomicInteger();
+        // One thread per in-flight request; idle threads are reclaimed after a minute
+        this.executor = Executors.newCachedThreadPool(task -> {
+            Thread thread = new Thread(task, "booking-http-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        register("/rooms", "GET", "rooms", this::rooms);
+        register("/schedule", "GET", "schedule", this::schedule);
+        register("/free", "GET", "free", this::free);
+        register("/reservations", "POST", "book", this::book);
+        register("/reservations", "DELETE", "cancel", this::cancel);
+    }
+
+    /**
+     * Starts accepting requests.
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Stops the server, letting requests in progress finish.
+     *
+     * @param delaySeconds the maximum time to wait for requests in progress
+     */
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(delaySeconds, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Gets the address the server listens on.
+     *
+     * @return the bound address
+     */
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    /**
+     * Registers an endpoint for a path and method.
+     *
+     * @param path the path
+     * @param method the HTTP method
+     * @param name the metric name of the endpoint
+     * @param endpoint the endpoint
+     */
+    private void register(String path, String method, String name, Endpoint endpoint) {
+        LatencyHistogram latency = Metrics.getRegistry().histogram("http." + name + ".latency");
+        Map<String, Endpoint> methods = endpoints.get(path);
+        if (methods == null) {
+            methods = new HashMap<>();
+            endpoints.put(path, methods);
+            Map<String, Endpoint> handlers = methods;
+            server.createContext(path, exchange -> dispatch(exchange, handlers));
+        }
+        methods.put(method, exchange -> {
+            long start = System.nanoTime();
+            try {
+                return endpoint.handle(exchange);
+            } finally {
+                latency.recordSince(start);
+            }
+        });
+    }
+
+    /**
+     * Dispatches a request to the endpoint of its method and writes the response.
+     *
+     * @param exchange the HTTP exchange
+     * @param methods the endpoints of the path, by method
+     * @throws IOException if the response cannot be written
+     */
+    private void dispatch(HttpExchange exchange, Map<String, Endpoint> methods) throws IOException {
+        requests.increment();
+        Response response;
+        try {
+            Endpoint endpoint = methods.get(exchange.getRequestMethod());
+            if (!exchange.getRequestURI().getPath().equals(exchange.getHttpContext().getPath())) {
+                response = Response.error(404, "Not found");
+            } else if (endpoint == null) {
+                exchange.getResponseHeaders().set("Allow", String.join(", ", methods.keySet()));
+                response = Response.error(405, "Method not allowed");
+            } else {
+                response = endpoint.handle(exchange);
+            }
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            response = Response.error(400, e.getMessage());
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            response = Response.error(500, "Internal error");
+        }
+        if (response.status >= 500) {
+            serverErrors.increment();
+        } else if (response.status >= 400) {
+            clientErrors.increment();
+        }
+
+        try (exchange) {
+            if (response.body == null) {
+                exchange.sendResponseHeaders(response.status, -1);
+                return;
+            }
+            byte[] body = response.body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(response.status, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    /**
+     * Lists the rooms, optionally filtered by type, minimum capacity and features.
+     */
+    private Response rooms(HttpExchange exchange) {
+        Map<String, String> query = parseQuery(exchange);
+        Collection<Room> rooms;
+        if (query.containsKey("type") || query.containsKey("capacity") || query.containsKey("features")) {
+            rooms = reservationManager.findRooms(intParam(query, "capacity", 0), featuresParam(query), typeParam(query));
+        } else {
+            rooms = reservationManager.getAllRooms();
+        }
+        StringBuilder json = new StringBuilder("[");
+        for (Room room : rooms) {
+            if (json.length() > 1) {
+                json.append(',');
+            }
+            json.append("{\"name\":").append(JsonUtils.quote(room.getName()))
+                .append(",\"type\":\"").append(room.getType().name())
+                .append("\",\"capacity\":").append(room.getCapacity())
+                .append(",\"features\":[");
+            boolean first = true;
+            for (RoomFeature feature : RoomFeature.values()) {
+                if (room.hasFeature(feature)) {
+                    json.append(first ? "\"" : ",\"").append(feature.name()).append('"');
+                    first = false;
+                }
+            }
+            json.append("]}");
+        }
+        return new Response(200, json.append(']').toString());
+    }
+
+    /**
+     * Lists the reservations of a day, including occurrences of series, optionally of one room.
+     */
+    private Response schedule(HttpExchange exchange) {
+        Map<String, String> query = parseQuery(exchange);
+        LocalDate date = LocalDate.parse(requiredParam(query, "date"));
+        Room room = null;
+        if (query.containsKey("room")) {
+            room = reservationManager.getRoom(query.get("room"));
+            if (room == null) {
+                return Response.error(404, "Unknown room: " + query.get("room"));
+            }
+        }
+        reservationManager.ensureLoaded(date, date);
+
+        StringBuilder json = new StringBuilder("{\"date\":\"").append(date).append("\",\"reservations\":[");
+        boolean first = true;
+        for (Reservation reservation : reservationManager.getReservationsForDate(date)) {
+            if (room == null || reservation.getRoom().equals(room)) {
+                if (!first) {
+                    json.append(',');
+                }
+                appendReservation(json, reservation);
+                first = false;
+            }
+        }
+        return new Response(200, json.append("]}").toString());
+    }
+
+    /**
+     * Finds free slots of a duration, from a date to an optional last date.
+     */
+    private Response free(HttpExchange exchange) {
+        Map<String, String> query = parseQuery(exchange);
+        LocalDate from = LocalDate.parse(requiredParam(query, "date"));
+        LocalDate to = query.containsKey("to") ? LocalDate.parse(query.get("to")) : from;
+        if (to.isBefore(from) || to.isAfter(from.plusYears(1))) {
+            throw new IllegalArgumentException("The last date must be within a year after the first");
+        }
+        int duration = intParam(query, "duration", -1);
+        if (duration < 1) {
+            throw new IllegalArgumentException("Missing or invalid parameter: duration");
+        }
+        int limit = Math.min(intParam(query, "limit", DEFAULT_FREE_SLOT_LIMIT), MAX_FREE_SLOT_LIMIT);
+
+        List<AvailableSlot> slots = reservationManager.findAvailable(intParam(query, "capacity", 0),
+            featuresParam(query), typeParam(query), duration, from, to, limit);
+        StringBuilder json = new StringBuilder("{\"slots\":[");
+        for (int i = 0; i < slots.size(); i++) {
+            AvailableSlot slot = slots.get(i);
+            json.append(i == 0 ? "{" : ",{")
+                .append("\"room\":").append(JsonUtils.quote(slot.getRoom().getName()))
+                .append(",\"date\":\"").append(slot.getDate())
+                .append("\",\"start\":\"").append(slot.getStartTime())
+                .append("\",\"end\":\"").append(slot.getEndTime()).append("\"}");
+        }
+        return new Response(200, json.append("]}").toString());
+    }
+
+    /**
+     * Books a slot described by a JSON object in the request body.
+     */
+    private Response book(HttpExchange exchange) throws IOException {
+        Map<String, String> body;
+        try (var in = exchange.getRequestBody()) {
+            body = JsonUtils.parseObject(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        Room room = reservationManager.getRoom(requiredParam(body, "room"));
+        if (room == null) {
+            return Response.error(404, "Unknown room: " + body.get("room"));
+        }
+        LocalDate date = LocalDate.parse(requiredParam(body, "date"));
+        LocalTime startTime = timeParam(body, "start");
+        LocalTime endTime = timeParam(body, "end");
+        String reservedBy = requiredParam(body, "reservedBy").trim();
+        ReservationType type = body.get("type") == null
+            ? ReservationType.OTHER : ReservationType.valueOf(body.get("type"));
+
+        ValidationUtils.ValidationResult result = ValidationUtils.validateReservationTime(room, startTime, endTime, date);
+        if (result.isValid()) {
+            result = ValidationUtils.validateReservedBy(reservedBy);
+        }
+        if (!result.isValid()) {
+            return Response.error(422, result.getMessage());
+        }
+
+        // The manager claims the slots atomically, so only one concurrent attempt wins
+        Reservation reservation = new Reservation(room, date, startTime, endTime, reservedBy, type);
+        if (!reservationManager.addReservation(reservation)) {
+            conflicts.increment();
+            return Response.error(409, "The slot is already reserved");
+        }
+        booked.increment();
+        StringBuilder json = new StringBuilder();
+        appendReservation(json, reservation);
+        return new Response(201, json.toString());
+    }
+
+    /**
+     * Cancels the reservation of a room starting at a given time, or that occurrence of a series.
+     */
+    private Response cancel(HttpExchange exchange) {
+        Map<String, String> query = parseQuery(exchange);
+        Room room = reservationManager.getRoom(requiredParam(query, "room"));
+        if (room == null) {
+            return Response.error(404, "Unknown room: " + query.get("room"));
+        }
+        LocalDate date = LocalDate.parse(requiredParam(query, "date"));
+        LocalTime startTime = timeParam(query, "start");
+        reservationManager.ensureLoaded(date, date);
+
+        for (Reservation reservation : reservationManager.getReservationsForDate(date)) {
+            if (reservation.getRoom().equals(room) && reservation.getStartTime().equals(startTime)
+                    && reservationManager.removeReservation(reservation)) {
+                return new Response(204, null);
+            }
+        }
+        return Response.error(404, "No reservation of " + room.getName() + " on " + date + " at " + startTime);
+    }
+
+    /**
+     * Appends a reservation as a JSON object.
+     *
+     * @param json the JSON being written
+     * @param reservation the reservation
+     */
+    private static void appendReservation(StringBuilder json, Reservation reservation) {
+        json.append("{\"room\":").append(JsonUtils.quote(reservation.getRoom().getName()))
+            .append(",\"date\":\"").append(reservation.getDate())
+            .append("\",\"start\":\"").append(reservation.getStartTime())
+            .append("\",\"end\":\"").append(reservation.getEndTime())
+            .append("\",\"reservedBy\":").append(JsonUtils.quote(reservation.getReservedBy()))
+            .append(",\"type\":\"").append(reservation.getType().name()).append("\"}");
+    }
+
+    /**
+     * Parses the query string of a request.
+     *
+     * @param exchange the HTTP exchange
+     * @return the decoded parameters
+     */
+    private static Map<String, String> parseQuery(HttpExchange exchange) {
+        Map<String, String> parameters = new HashMap<>();
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null || query.isEmpty()) {
+            return parameters;
+        }
+        for (String pair : query.split("&")) {
+            int equals = pair.indexOf('=');
+            String name = equals < 0 ? pair : pair.substring(0, equals);
+            String value = equals < 0 ? "" : pair.substring(equals + 1);
+            parameters.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return parameters;
+    }
+
+    private static String requiredParam(Map<String, String> parameters, String name) {
+        String value = parameters.get(name);
+        if (value == null || value.isEmpty()) {
+            throw new IllegalArgumentException("Missing parameter: " + name);
+        }
+        return value;
+    }
+
+    private static LocalTime timeParam(Map<String, String> parameters, String name) {
+        LocalTime time = LocalTime.parse(requiredParam(parameters, name));
+        if (!Reservation.isOnTheHour(time)) {
+            throw new IllegalArgumentException("Times must be on the hour: " + name);
+        }
+        return time;
+    }
+
+    private static int intParam(Map<String, String> parameters, String name, int defaultValue) {
+        String value = parameters.get(name);
+        if (value == null || value.isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid parameter: " + name);
+        }
+    }
+
+    private static RoomType typeParam(Map<String, String> parameters) {
+        String value = parameters.get("type");
+        return value == null || value.isEmpty() ? null : RoomType.valueOf(value);
+    }
+
+    private static Set<RoomFeature> featuresParam(Map<String, String> parameters) {
+        Set<RoomFeature> features = EnumSet.noneOf(RoomFeature.class);
+        String value = parameters.get("features");
+        if (value != null && !value.isEmpty()) {
+            for (String feature : value.split(",")) {
+                features.add(RoomFeature.valueOf(feature.trim()));
+            }
+        }
+        return features;
+    }
+}
@@ -0,0 +1,260 @@
+package controllers;
+
+import models.reservation.Reservation;
+import models.reservation.ReservationType;
+import models.room.Room;
+import utils.ValidationUtils;
+import utils.ValidationUtils.ValidationResult;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+/**
+ * Imports reservations from a CSV file without a user interface.
+ * <p>
+ * Each line holds {@code room,date,startTime,endTime,reservedBy,type}, with
+ * ISO dates ({@code 2025-09-15}) and times ({@code 09:00}); the type is either
+ * its name or its display name. An optional header line starting with
+ * {@code room} is skipped.
+ * <p>
+ * The input is read in chunks. The records of a chunk are parsed and
+ * validated in parallel with the {@link ValidationUtils} rules, then booked
+ * in file order so that conflicts are detected by the manager's occupancy
+ * index. Rejected lines are written to a CSV report next to the output file.
+ */
+public class BulkImporter {
+    private static final int CHUNK_SIZE = 8192;
+    private static final int FIELD_COUNT = 6;
+    private static final long PROGRESS_INTERVAL_MILLIS = 1000;
+    private static final String REJECTS_FILE_SUFFIX = ".rejects.csv";
+    private static final String RESERVATION_FILE_EXTENSION = ".resv";
+
+    private final ReservationManager manager;
+    private final FileManager fileManager;
+
+    /**
+     * Represents the outcome of an import.
+     */
+    public static class ImportResult {
+        private final long imported;
+        private final long rejected;
+        private final long elapsedMillis;
+        private final long bytesWritten;
+        private final Path rejectsFile;
+
+        /**
+         * Constructs an ImportResult.
+         *
+         * @param imported the number of imported reservations
+         * @param rejected the number of rejected lines
+         * @param elapsedMillis the duration of the import in milliseconds
+         * @param bytesWritten the size of the written reservation file, or -1 if it could not be written
+         * @param rejectsFile the reject report
+         */
+        public ImportResult(long imported, long rejected, long elapsedMillis, long bytesWritten, Path rejectsFile) {
+            this.imported = imported;
+            this.rejected = rejected;
+            this.elapsedMillis = elapsedMillis;
+            this.bytesWritten = bytesWritten;
+            this.rejectsFile = rejectsFile;
+        }
+
+        public long getImported() { return imported; }
+        public long getRejected() { return rejected; }
+        public long getElapsedMillis() { return elapsedMillis; }
+        public long getBytesWritten() { return bytesWritten; }
+        public Path getRejectsFile() { return rejectsFile; }
+
+        /**
+         * Gets the throughput of the import.
+         *
+         * @return the number of processed lines per second
+         */
+        public long getRecordsPerSecond() {
+            return (imported + rejected) * 1000 / Math.max(elapsedMillis, 1);
+        }
+    }
+
+    /**
+     * Constructs a BulkImporter.
+     *
+     * @param manager the reservation manager receiving the reservations
+     * @param fileManager the file manager used to write the result
+     */
+    public BulkImporter(ReservationManager manager, FileManager fileManager) {
+        this.manager = manager;
+        this.fileManager = fileManager;
+    }
+
+    /**
+     * Imports a CSV file and saves the accepted reservations.
+     *
+     * @param csvFile the CSV file to import
+     * @param outputFile the reservation file to write
+     * @return the outcome of the import
+     * @throws IOException if the input or the reject report cannot be accessed
+     */
+    public ImportResult importFile(String csvFile, String outputFile) throws IOException {
+        String baseName = outputFile.endsWith(RESERVATION_FILE_EXTENSION)
+            ? outputFile.substring(0, outputFile.length() - RESERVATION_FILE_EXTENSION.length())
+            : outputFile;
+        Path rejectsFile = Paths.get(baseName + REJECTS_FILE_SUFFIX);
+        long startMillis = System.currentTimeMillis();
+        long lastReportMillis = startMillis;
+        // Repeated names share one string for the duration of the import
+        Map<String, String> names = new ConcurrentHashMap<>();
+        long imported = 0;
+        long rejected = 0;
+        int lineNumber = 0;
+
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(csvFile));
+             BufferedWriter rejects = Files.newBufferedWriter(rejectsFile)) {
+            rejects.write("line,reason,input");
+            rejects.newLine();
+
+            List<String> chunk = new ArrayList<>(CHUNK_SIZE);
+            String line;
+            boolean firstLine = true;
+            while (true) {
+                line = reader.readLine();
+                if (line != null) {
+                    lineNumber++;
+                    if (firstLine && line.trim().toLowerCase().startsWith("room")) {
+                        firstLine = false;
+                        chunk.add(null);
+                        continue;
+                    }
+                    firstLine = false;
+                    chunk.add(line);
+                    if (chunk.size() < CHUNK_SIZE) {
+                        continue;
+                    }
+                }
+                if (chunk.isEmpty()) {
+                    break;
+                }
+
+                int firstLineNumber = lineNumber - chunk.size() + 1;
+                List<String> lines = chunk;
+                Reservation[] reservations = new Reservation[lines.size()];
+                String[] reasons = new String[lines.size()];
+                IntStream.range(0, lines.size()).parallel().forEach(i -> {
+                    if (lines.get(i) != null && !lines.get(i).isBlank()) {
+                        reasons[i] = parse(lines.get(i), reservations, i, names);
+                    }
+                });
+
+                for (int i = 0; i < lines.size(); i++) {
+                    if (reasons[i] == null && reservations[i] != null && !manager.addReservation(reservations[i])) {
+                        reasons[i] = "This time slot conflicts with an existing reservation";
+                    }
+                    if (reasons[i] != null) {
+                        rejected++;
+                        writeReject(rejects, firstLineNumber + i, reasons[i], lines.get(i));
+                    } else if (reservations[i] != null) {
+                        imported++;
+                    }
+                }
+                chunk = new ArrayList<>(CHUNK_SIZE);
+
+                long now = System.currentTimeMillis();
+                if (now - lastReportMillis >= PROGRESS_INTERVAL_MILLIS) {
+                    lastReportMillis = now;
+                    System.out.println("Processed " + (imported + rejected) + " records ("
+                        + imported + " imported, " + rejected + " rejected), "
+                        + (imported + rejected) * 1000 / Math.max(now - startMillis, 1) + " records/s.");
+                }
+                if (line == null) {
+                    break;
+                }
+            }
+        }
+
+        long bytesWritten = fileManager.saveReservations(outputFile, manager.getAllReservations());
+        return new ImportResult(imported, rejected, System.currentTimeMillis() - startMillis, bytesWritten, rejectsFile);
+    }
+
+    /**
+     * Parses and validates one CSV line.
+     *
+     * @param line the line
+     * @param reservations the array receiving the parsed reservation
+     * @param index the index of the line in the array
+     * @param names the names read so far, shared by the reservations of the import
+     * @return the rejection reason, or null if the line is valid
+     */
+    private String parse(String line, Reservation[] reservations, int index, Map<String, String> names) {
+        String[] fields = line.split(",", -1);
+        if (fields.length != FIELD_COUNT) {
+            return "Expected " + FIELD_COUNT + " fields but found " + fields.length;
+        }
+        Room room = manager.getRoom(fields[0].trim());
+        if (room == null) {
+            return "Unknown room: " + fields[0].trim();
+        }
+        LocalDate date;
+        LocalTime startTime;
+        LocalTime endTime;
+        try {
+            date = LocalDate.parse(fields[1].trim());
+            startTime = LocalTime.parse(fields[2].trim());
+            endTime = LocalTime.parse(fields[3].trim());
+        } catch (DateTimeParseException e) {
+            return "Invalid date or time: " + e.getParsedString();
+        }
+        ReservationType type = parseType(fields[5].trim());
+        if (type == null) {
+            return "Unknown reservation type: " + fields[5].trim();
+        }
+
+        ValidationResult result = ValidationUtils.validateReservedBy(fields[4]);
+        if (result.isValid()) {
+            result = ValidationUtils.validateReservationTime(room, startTime, endTime, date);
+        }
+        if (!result.isValid()) {
+            return result.getMessage();
+        }
+        String reservedBy = names.computeIfAbsent(fields[4].trim(), name -> name);
+        reservations[index] = new Reservation(room, date, startTime, endTime, reservedBy, type);
+        return null;
+    }
+
+    /**
+     * Parses a reservation type from its name or display name.
+     *
+     * @param value the value
+     * @return the reservation type, or null if none matches
+     */
+    private static ReservationType parseType(String value) {
+        for (ReservationType type : ReservationType.values()) {
+            if (type.name().equalsIgnoreCase(value) || type.getDisplayName().equalsIgnoreCase(value)) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Writes one line of the reject report.
+     */
+    private static void writeReject(BufferedWriter rejects, int lineNumber, String reason, String input) throws IOException {
+        rejects.write(lineNumber + "," + quote(reason) + "," + quote(input));
+        rejects.newLine();
+    }
+
+    private static String quote(String value) {
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+}
@@ -1,17 +1,24 @@
 package controllers;
 
 import models.reservation.Reservation;
-import models.reservation.ReservationType;
+import models.reservation.ReservationSeries;
 import models.room.Classroom;
 import models.room.Laboratory;
 import models.room.Room;
 import models.room.RoomType;
+import utils.metrics.Counter;
+import utils.metrics.LatencyHistogram;
+import utils.metrics.Metrics;
 
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.time.LocalDate;
-import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Manages file operations for saving and loading reservations and rooms.
@@ -19,35 +26,187 @@ import java.util.List;
 public class FileManager {
     private static final String DEFAULT_ROOMS_FILE = "config/rooms.txt";
     private static final String RESERVATION_FILE_EXTENSION = ".resv";
+    private static final String TEMP_FILE_EXTENSION = ".tmp";
+
+    private final LatencyHistogram saveLatency = Metrics.getRegistry().histogram("persistence.save.latency");
+    private final Counter savedBytes = Metrics.getRegistry().counter("persistence.save.bytes");
+    private final Counter savedRecords = Metrics.getRegistry().counter("persistence.save.records");
+    private final Counter saveFailures = Metrics.getRegistry().counter("persistence.save.failures");
+    private final LatencyHistogram loadLatency = Metrics.getRegistry().histogram("persistence.load.latency");
+    private final Counter loadedRecords = Metrics.getRegistry().counter("persistence.load.records");
+    private final Counter loadFailures = Metrics.getRegistry().counter("persistence.load.failures");
+
+    /**
+     * Saves reservations to a file in the binary format.
+     *
+     * @param filename the name of the file
+     * @param reservations the list of reservations to save
+     * @return the number of bytes written, or -1 if the save failed
+     */
+    public long saveReservations(String filename, List<Reservation> reservations) {
+        return saveReservations(filename, reservations, ReservationFileFormat.BINARY);
+    }
+
+    /**
+     * Saves reservations to a file in the given format.
+     *
+     * @param filename the name of the file
+     * @param reservations the list of reservations to save
+     * @param format the file format
+     * @return the number of bytes written, or -1 if the save failed
+     */
+    public long saveReservations(String filename, List<Reservation> reservations, ReservationFileFormat format) {
+        return saveReservations(filename, reservations, List.of(), format);
+    }
+
+    /**
+     * Saves reservations and reservation series to a file in the binary format.
+     *
+     * @param filename the name of the file
+     * @param reservations the list of reservations to save
+     * @param series the list of reservation series to save
+     * @return the number of bytes written, or -1 if the save failed
+     */
+    public long saveReservations(String filename, List<Reservation> reservations, List<ReservationSeries> series) {
+        return saveReservations(filename, reservations, series, ReservationFileFormat.BINARY);
+    }
+
+    /**
+     * Saves reservations and reservation series to a file in the given format.
+     * The reservations are written to a temporary file which then atomically
+     * replaces the target, so a crash never leaves a truncated file behind.
+     *
+     * @param filename the name of the file
+     * @param reservations the list of reservations to save
+     * @param series the list of reservation series to save
+     * @param format the file format
+     * @return the number of bytes written, or -1 if the save failed
+     */
+    public long saveReservations(String filename, List<Reservation> reservations, List<ReservationSeries> series,
+                                 ReservationFileFormat format) {
+        return saveReservations(filename, reservations, series, format, null);
+    }
 
     /**
-     * Saves reservations to a file.
+     * Saves reservations and reservation series to a file in the given format,
+     * reporting the bytes written to a progress listener.
+     * If the listener cancels the save, the target file is left untouched.
      *
      * @param filename the name of the file
      * @param reservations the list of reservations to save
+     * @param series the list of reservation series to save
+     * @param format the file format
+     * @param progress the listener receiving the number of bytes written, may be null
+     * @return the number of bytes written, or -1 if the save failed or was cancelled
      */
-    public void saveReservations(String filename, List<Reservation> reservations) {
+    public long saveReservations(String filename, List<Reservation> reservations, List<ReservationSeries> series,
+                                 ReservationFileFormat format, ProgressListener progress) {
         if (!filename.endsWith(RESERVATION_FILE_EXTENSION)) {
             filename += RESERVATION_FILE_EXTENSION;
         }
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filename))) {
-            for (Reservation reservation : reservations) {
-                writer.write("RESERVATION\n");
-                writer.write("room=" + reservation.getRoom().getName() + "\n");
-                writer.write("date=" + reservation.getDate() + "\n");
-                writer.write("startTime=" + reservation.getStartTime() + "\n");
-                writer.write("endTime=" + reservation.getEndTime() + "\n");
-                writer.write("reservedBy=" + reservation.getReservedBy() + "\n");
-                writer.write("type=" + reservation.getType() + "\n");
-                writer.write("END\n\n");
+        Path target = Paths.get(filename).toAbsolutePath();
+        Path tempFile = target.resolveSibling(target.getFileName() + TEMP_FILE_EXTENSION);
+        long start = System.nanoTime();
+        try {
+            writeReservations(tempFile, reservations, series, format, progress);
+            if (progress != null && progress.isCancelled()) {
+                throw new InterruptedIOException("Save cancelled");
+            }
+            Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            long bytes = Files.size(target);
+            savedBytes.add(bytes);
+            savedRecords.add(reservations.size() + series.size());
+            return bytes;
+        } catch (InterruptedIOException e) {
+            deleteQuietly(tempFile);
+            return -1;
+        } catch (IOException e) {
+            e.printStackTrace();
+            deleteQuietly(tempFile);
+            saveFailures.increment();
+            return -1;
+        } finally {
+            saveLatency.recordSince(start);
+        }
+    }
+
+    /**
+     * Writes reservations to a file and syncs it to disk.
+     *
+     * @param file the file
+     * @param reservations the list of reservations to write
+     * @param series the list of reservation series to write
+     * @param format the file format
+     * @param progress the listener receiving the number of bytes written, may be null
+     * @throws IOException if the file cannot be written
+     */
+    private void writeReservations(Path file, List<Reservation> reservations, List<ReservationSeries> series,
+                                   ReservationFileFormat format, ProgressListener progress) throws IOException {
+        try (FileOutputStream output = new FileOutputStream(file.toFile())) {
+            OutputStream target = progress == null ? output : new ProgressOutputStream(output, progress);
+            if (format == ReservationFileFormat.BINARY) {
+                BinaryReservationCodec.write(target, reservations, series);
+            } else {
+                writeText(target, reservations, series);
             }
+            output.getFD().sync();
+        }
+    }
+
+    /**
+     * Deletes a file, ignoring errors.
+     *
+     * @param file the file
+     */
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
 
+    /**
+     * Writes reservations and reservation series in the text format.
+     *
+     * @param output the stream to write to
+     * @param reservations the list of reservations to write
+     * @param series the list of reservation series to write
+     * @throws IOException if the stream cannot be written
+     */
+    private void writeText(OutputStream output, List<Reservation> reservations, List<ReservationSeries> series) throws IOException {
+        BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(output));
+        for (Reservation reservation : reservations) {
+            writer.write("RESERVATION\n");
+            writer.write("room=" + reservation.getRoom().getName() + "\n");
+            writer.write("date=" + reservation.getDate() + "\n");
+            writer.write("startTime=" + reservation.getStartTime() + "\n");
+            writer.write("endTime=" + reservation.getEndTime() + "\n");
+            writer.write("reservedBy=" + reservation.getReservedBy() + "\n");
+            writer.write("type=" + reservation.getType() + "\n");
+            writer.write("END\n\n");
+        }
+        for (ReservationSeries reservationSeries : series) {
+            writer.write("SERIES\n");
+            writer.write("room=" + reservationSeries.getRoom().getName() + "\n");
+            writer.write("firstDate=" + reservationSeries.getFirstDate() + "\n");
+            writer.write("lastDate=" + reservationSeries.getLastDate() + "\n");
+            writer.write("recurrence=" + reservationSeries.getRecurrence() + "\n");
+            writer.write("startTime=" + reservationSeries.getStartTime() + "\n");
+            writer.write("endTime=" + reservationSeries.getEndTime() + "\n");
+            writer.write("reservedBy=" + reservationSeries.getReservedBy() + "\n");
+            writer.write("type=" + reservationSeries.getType() + "\n");
+            writer.write("exceptions=" + String.join(",",
+                reservationSeries.getExceptions().stream().map(LocalDate::toString).toList()) + "\n");
+            writer.write("END\n\n");
+        }
+        writer.flush();
+    }
+
     /**
      * Loads reservations from a file.
+     * The format is detected from the file header, so both binary and
+     * legacy text files can be opened.
      *
      * @param filename the name of the file
      * @param reservationManager the reservation manager
@@ -57,50 +216,132 @@ public class FileManager {
         if (!filename.endsWith(RESERVATION_FILE_EXTENSION)) {
             filename += RESERVATION_FILE_EXTENSION;
         }
-        List<Reservation> reservations = new ArrayList<>();
-        try (BufferedReader reader = new BufferedReader(new FileReader(filename))) {
-            String line;
-            Reservation reservation = null;
-            while ((line = reader.readLine()) != null) {
-                if (line.equals("RESERVATION")) {
-                    reservation = new Reservation();
-                } else if (line.equals("END")) {
-                    if (reservation != null) {
-                        reservations.add(reservation);
-                    }
-                } else if (reservation != null) {
-                    String[] parts = line.split("=");
-                    switch (parts[0]) {
-                        case "room":
-                            Room room = reservationManager.getRoom(parts[1]);
-                            reservation.setRoom(room);
-                            break;
-                        case "date":
-                            reservation.setDate(LocalDate.parse(parts[1]));
-                            break;
-                        case "startTime":
-                            reservation.setStartTime(LocalTime.parse(parts[1]));
-                            break;
-                        case "endTime":
-                            reservation.setEndTime(LocalTime.parse(parts[1]));
-                            break;
-                        case "reservedBy":
-                            reservation.setReservedBy(parts[1]);
-                            break;
-                        case "type":
-                            reservation.setType(ReservationType.valueOf(parts[1]));
-                            break;
-                    }
-                }
+        long start = System.nanoTime();
+        List<Reservation> reservations = readReservations(filename, reservationManager);
+        loadLatency.recordSince(start);
+        loadedRecords.add(reservations.size());
+        return reservations;
+    }
+
+    /**
+     * Reads reservations from a file in either format.
+     *
+     * @param filename the name of the file, including the extension
+     * @param reservationManager the reservation manager
+     * @return the list of read reservations, empty if the file cannot be read
+     */
+    private List<Reservation> readReservations(String filename, ReservationManager reservationManager) {
+        try {
+            Path file = Paths.get(filename);
+            if (BinaryReservationCodec.isBinary(file)) {
+                return BinaryReservationCodec.read(file, reservationManager);
             }
         } catch (IOException e) {
             e.printStackTrace();
+            loadFailures.increment();
+            return new ArrayList<>();
+        }
+        return loadTextReservations(filename, reservationManager);
+    }
+
+    /**
+     * Loads reservations from a text file using the streaming parser.
+     *
+     * @param filename the name of the file
+     * @param reservationManager the reservation manager
+     * @return the list of loaded reservations
+     */
+    private List<Reservation> loadTextReservations(String filename, ReservationManager reservationManager) {
+        try {
+            return TextReservationParser.parseFile(Paths.get(filename), reservationManager);
+        } catch (IOException e) {
+            e.printStackTrace();
+            loadFailures.increment();
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Streams reservations from a file in batches, without building the whole list first.
+     * The format is detected from the file header.
+     *
+     * @param filename the name of the file
+     * @param reservationManager the reservation manager used to resolve rooms
+     * @param batchSize the maximum number of reservations per batch
+     * @param sink the consumer receiving each batch
+     * @throws IOException if the file cannot be read
+     */
+    public void streamReservations(String filename, ReservationManager reservationManager, int batchSize,
+                                   Consumer<List<Reservation>> sink) throws IOException {
+        if (!filename.endsWith(RESERVATION_FILE_EXTENSION)) {
+            filename += RESERVATION_FILE_EXTENSION;
+        }
+        Path file = Paths.get(filename);
+        long start = System.nanoTime();
+        Consumer<List<Reservation>> countingSink = batch -> {
+            loadedRecords.add(batch.size());
+            sink.accept(batch);
+        };
+        try {
+            if (BinaryReservationCodec.isBinary(file)) {
+                BinaryReservationCodec.stream(file, reservationManager, batchSize, countingSink);
+            } else {
+                TextReservationParser.streamFile(file, reservationManager, batchSize, countingSink);
+            }
+        } catch (IOException e) {
+            loadFailures.increment();
+            throw e;
+        } finally {
+            loadLatency.recordSince(start);
+        }
+    }
+
+    /**
+     * Counts the reservations stored in a file without loading them.
+     * Only binary files record their size; text files would have to be parsed.
+     *
+     * @param filename the name of the file
+     * @return the number of reservations, or -1 if it is not known in advance
+     */
+    public int countReservations(String filename) {
+        if (!filename.endsWith(RESERVATION_FILE_EXTENSION)) {
+            filename += RESERVATION_FILE_EXTENSION;
+        }
+        try {
+            Path file = Paths.get(filename);
+            return BinaryReservationCodec.isBinary(file) ? BinaryReservationCodec.readRecordCount(file) : -1;
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Loads the reservation series stored in a file.
+     * The format is detected from the file header.
+     *
+     * @param filename the name of the file
+     * @param reservationManager the reservation manager used to resolve rooms
+     * @return the list of loaded series
+     */
+    public List<ReservationSeries> loadSeries(String filename, ReservationManager reservationManager) {
+        if (!filename.endsWith(RESERVATION_FILE_EXTENSION)) {
+            filename += RESERVATION_FILE_EXTENSION;
+        }
+        try {
+            Path file = Paths.get(filename);
+            if (BinaryReservationCodec.isBinary(file)) {
+                return BinaryReservationCodec.readSeries(file, reservationManager);
+            }
+            return TextReservationParser.parseSeries(file, reservationManager);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return new ArrayList<>();
         }
-        return reservations;
     }
 
     /**
      * Loads rooms from the default configuration file.
+     * All rooms are handed to the manager in a single bulk add.
      *
      * @param manager the reservation manager
      */
@@ -125,30 +366,55 @@ public class FileManager {
 
             // Reading the file if loaded
             if (reader != null) {
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    String[] parts = line.split(",");
-                    String name = parts[0];
-                    RoomType type = RoomType.valueOf(parts[1].toUpperCase());
-                    int capacity = Integer.parseInt(parts[2]);
-                    boolean feature1 = Boolean.parseBoolean(parts[3]);
-                    boolean feature2 = Boolean.parseBoolean(parts[4]);
-
-                    Room room;
-                    if (type == RoomType.CLASSROOM) {
-                        room = new Classroom(name, capacity, feature1, feature2);
-                    } else {
-                        room = new Laboratory(name, capacity, feature1, feature2);
-                    }
-                    manager.addRoom(room);
-                }
-                reader.close();
+                manager.addRooms(readRooms(reader));
             }
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
 
+    /**
+     * Loads rooms from a configuration file in the rooms.txt format.
+     *
+     * @param filename the name of the file
+     * @param manager the reservation manager
+     * @throws IOException if the file cannot be read
+     */
+    public void loadRooms(String filename, ReservationManager manager) throws IOException {
+        manager.addRooms(readRooms(new BufferedReader(new FileReader(filename))));
+    }
+
+    /**
+     * Reads rooms, one per line, and closes the reader.
+     *
+     * @param reader the reader
+     * @return the rooms
+     * @throws IOException if the rooms cannot be read
+     */
+    private List<Room> readRooms(BufferedReader reader) throws IOException {
+        List<Room> rooms = new ArrayList<>();
+        try (reader) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.split(",");
+                String name = parts[0];
+                RoomType type = RoomType.valueOf(parts[1].toUpperCase());
+                int capacity = Integer.parseInt(parts[2]);
+                boolean feature1 = Boolean.parseBoolean(parts[3]);
+                boolean feature2 = Boolean.parseBoolean(parts[4]);
+
+                Room room;
+                if (type == RoomType.CLASSROOM) {
+                    room = new Classroom(name, capacity, feature1, feature2);
+                } else {
+                    room = new Laboratory(name, capacity, feature1, feature2);
+                }
+                rooms.add(room);
+            }
+        }
+        return rooms;
+    }
+
     /**
      * Checks if a file exists.
      *
@@ -158,4 +424,50 @@ public class FileManager {
     public boolean fileExists(String filename) {
         return new File(filename).exists();
     }
-}
\ No newline at end of file
+
+    /**
+     * Output stream reporting the bytes written to a progress listener
+     * and failing once the listener cancels.
+     */
+    private static class ProgressOutputStream extends FilterOutputStream {
+        private final ProgressListener progress;
+        private long written;
+
+        /**
+         * Constructs a ProgressOutputStream.
+         *
+         * @param output the stream to write to
+         * @param progress the progress listener
+         */
+        ProgressOutputStream(OutputStream output, ProgressListener progress) {
+            super(output);
+            this.progress = progress;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            checkCancelled();
+            out.write(b);
+            progress.progress(++written);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            checkCancelled();
+            out.write(b, off, len);
+            written += len;
+            progress.progress(written);
+        }
+
+        /**
+         * Fails the write if the listener cancelled the save.
+         *
+         * @throws InterruptedIOException if the save was cancelled
+         */
+        private void checkCancelled() throws InterruptedIOException {
+            if (progress.isCancelled()) {
+                throw new InterruptedIOException("Save cancelled");
+            }
+        }
+    }
+}
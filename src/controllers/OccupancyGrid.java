@@ -0,0 +1,342 @@
+package controllers;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.time.LocalTime;
+import java.util.Arrays;
+
+/**
+ * Primitive occupancy grid storing one bitmask of hourly slots per (room, day).
+ * Bit 0 is the 08:00-09:00 slot, bit 9 the 17:00-18:00 slot.
+ * <p>
+ * Each entry also carries a version stamp, bumped on every change of its
+ * slots, in the bits above the mask. {@link #tryOccupy} and {@link #release}
+ * change an entry with a compare-and-set, so callers that only share the
+ * grid can book different rooms and days without contending, while a lost
+ * race for the same slots fails at once. All other changes, including the
+ * growth of the table, need exclusive access.
+ */
+public class OccupancyGrid {
+    private static final int OPENING_HOUR = 8;
+    private static final long EMPTY_KEY = Long.MIN_VALUE;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final float LOAD_FACTOR = 0.5f;
+    private static final VarHandle KEYS = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final VarHandle STATES = MethodHandles.arrayElementVarHandle(int[].class);
+    private static final VarHandle SIZE;
+
+    static {
+        try {
+            SIZE = MethodHandles.lookup().findVarHandle(OccupancyGrid.class, "size", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /** Number of hourly slots in a business day. */
+    public static final int SLOTS = 10;
+
+    /** Result of {@link #tryOccupy}: the slots were free and are now occupied. */
+    public static final int CLAIMED = 0;
+    /** Result of {@link #tryOccupy}: some of the slots are occupied or blocked. */
+    public static final int CONFLICT = 1;
+    /** Result of {@link #tryOccupy}: the day is new and the table must grow first. */
+    public static final int FULL = 2;
+
+    private static final int MASK_BITS = (1 << SLOTS) - 1;
+
+    private long[] keys;
+    private int[] states;
+    private int size;
+
+    /**
+     * Constructs an empty OccupancyGrid.
+     */
+    public OccupancyGrid() {
+        allocate(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Gets the bitmask covering a time range.
+     *
+     * @param startTime the start time
+     * @param endTime the end time
+     * @return the slot mask, with one bit per hour in the range
+     */
+    public static int slotMask(LocalTime startTime, LocalTime endTime) {
+        return slotMask(startTime.getHour(), endTime.getHour());
+    }
+
+    /**
+     * Gets the bitmask covering a range of hours.
+     *
+     * @param startHour the start hour
+     * @param endHour the end hour (exclusive)
+     * @return the slot mask, with one bit per hour in the range
+     */
+    public static int slotMask(int startHour, int endHour) {
+        return ((1 << (endHour - startHour)) - 1) << (startHour - OPENING_HOUR);
+    }
+
+    /**
+     * Gets the occupied slots of a room on a day.
+     *
+     * @param roomId the room id
+     * @param epochDay the day, as returned by {@code LocalDate.toEpochDay()}
+     * @return the occupied slot mask, 0 if the day is free
+     */
+    public int get(int roomId, long epochDay) {
+        int slot = find(key(roomId, epochDay));
+        return slot < 0 ? 0 : (int) STATES.getAcquire(states, slot) & MASK_BITS;
+    }
+
+    /**
+     * Gets the version stamp of a room on a day, which changes whenever its
+     * occupied slots change. Stamps wrap around and restart when a day is
+     * removed, so they only tell whether a day changed between two reads.
+     *
+     * @param roomId the room id
+     * @param epochDay the day
+     * @return the version stamp, 0 if the day has no entry
+     */
+    public int getVersion(int roomId, long epochDay) {
+        int slot = find(key(roomId, epochDay));
+        return slot < 0 ? 0 : (int) STATES.getAcquire(states, slot) >>> SLOTS;
+    }
+
+    /**
+     * Checks whether all slots of a mask are free.
+     *
+     * @param roomId the room id
+     * @param epochDay the day
+     * @param mask the slots to check
+     * @return true if none of the slots is occupied, false otherwise
+     */
+    public boolean isFree(int roomId, long epochDay, int mask) {
+        return (get(roomId, epochDay) & mask) == 0;
+    }
+
+    /**
+     * Marks the slots of a mask as occupied.
+     *
+     * @param roomId the room id
+     * @param epochDay the day
+     * @param mask the slots to occupy
+     */
+    public void occupy(int roomId, long epochDay, int mask) {
+        int slot = insertionSlot(key(roomId, epochDay));
+        states[slot] = nextState(states[slot], states[slot] | mask);
+    }
+
+    /**
+     * Replaces the occupied slots of a room on a day.
+     *
+     * @param roomId the room id
+     * @param epochDay the day
+     * @param mask the new slot mask
+     */
+    public void set(int roomId, long epochDay, int mask) {
+        long key = key(roomId, epochDay);
+        if (mask == 0 && find(key) < 0) {
+            return;
+        }
+        int slot = insertionSlot(key);
+        states[slot] = nextState(states[slot], mask);
+    }
+
+    /**
+     * Atomically occupies the slots of a mask if none of them is occupied or
+     * blocked. Safe to call concurrently with other calls of this method and
+     * of {@link #release}, as long as nothing else changes the grid.
+     *
+     * @param roomId the room id
+     * @param epochDay the day
+     * @param mask the slots to occupy
+     * @param blocked slots to treat as occupied, e.g. those of recurring bookings
+     * @return {@link #CLAIMED}, {@link #CONFLICT}, or {@link #FULL} if the
+     *         table must grow under exclusive access before the day can be added
+     */
+    public int tryOccupy(int roomId, long epochDay, int mask, int blocked) {
+        if ((blocked & mask) != 0) {
+            return CONFLICT;
+        }
+        int slot = findOrInsert(key(roomId, epochDay));
+        if (slot < 0) {
+            return FULL;
+        }
+        while (true) {
+            int state = (int) STATES.getAcquire(states, slot);
+            if ((state & mask) != 0) {
+                return CONFLICT;
+            }
+            // Fails only if the day changed since it was read; retry against the new slots
+            if (STATES.compareAndSet(states, slot, state, nextState(state, state | mask))) {
+                return CLAIMED;
+            }
+        }
+    }
+
+    /**
+     * Atomically frees the slots of a mask. Safe to call concurrently with
+     * {@link #tryOccupy}, as long as nothing else changes the grid.
+     *
+     * @param roomId the room id
+     * @param epochDay the day
+     * @param mask the slots to free
+     */
+    public void release(int roomId, long epochDay, int mask) {
+        int slot = find(key(roomId, epochDay));
+        if (slot < 0) {
+            return;
+        }
+        while (true) {
+            int state = (int) STATES.getAcquire(states, slot);
+            if (STATES.compareAndSet(states, slot, state, nextState(state, state & ~mask))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Removes the entry of a room on a day, freeing its table slot.
+     *
+     * @param roomId the room id
+     * @param epochDay the day
+     */
+    public void remove(int roomId, long epochDay) {
+        int hole = find(key(roomId, epochDay));
+        if (hole < 0) {
+            return;
+        }
+        // Backward-shift deletion: move later entries of the probe cluster into
+        // the hole when their home slot allows it, so lookups never stop early
+        int m = keys.length - 1;
+        for (int i = (hole + 1) & m; keys[i] != EMPTY_KEY; i = (i + 1) & m) {
+            int home = hash(keys[i]) & m;
+            if (((i - home) & m) >= ((i - hole) & m)) {
+                keys[hole] = keys[i];
+                states[hole] = states[i];
+                hole = i;
+            }
+        }
+        keys[hole] = EMPTY_KEY;
+        states[hole] = 0;
+        size--;
+    }
+
+    /**
+     * Clears the whole grid.
+     */
+    public void clear() {
+        allocate(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Packs a room id and a day into a table key.
+     */
+    private static long key(int roomId, long epochDay) {
+        return ((long) roomId << 32) | (epochDay & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Computes the state holding a new mask, with the version of a previous state bumped.
+     */
+    private static int nextState(int previous, int mask) {
+        return ((previous >>> SLOTS) + 1) << SLOTS | (mask & MASK_BITS);
+    }
+
+    /**
+     * Finds the table slot of a key.
+     *
+     * @return the slot index, or -1 if the key is absent
+     */
+    private int find(long key) {
+        int m = keys.length - 1;
+        for (int i = hash(key) & m; ; i = (i + 1) & m) {
+            long k = (long) KEYS.getAcquire(keys, i);
+            if (k == key) {
+                return i;
+            }
+            if (k == EMPTY_KEY) {
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * Finds the table slot of a key, inserting the key with a compare-and-set
+     * if absent. The size is reserved before inserting, so concurrent
+     * insertions never fill the table past its load factor.
+     *
+     * @return the slot index, or -1 if the table must grow first
+     */
+    private int findOrInsert(long key) {
+        int slot = find(key);
+        if (slot >= 0) {
+            return slot;
+        }
+        if ((int) SIZE.getAndAdd(this, 1) + 1 > keys.length * LOAD_FACTOR) {
+            SIZE.getAndAdd(this, -1);
+            return -1;
+        }
+        int m = keys.length - 1;
+        for (int i = hash(key) & m; ; i = (i + 1) & m) {
+            long k = (long) KEYS.getAcquire(keys, i);
+            if (k == EMPTY_KEY && KEYS.compareAndSet(keys, i, EMPTY_KEY, key)) {
+                return i;
+            }
+            // The slot was taken meanwhile, possibly by the same key
+            if ((long) KEYS.getAcquire(keys, i) == key) {
+                SIZE.getAndAdd(this, -1);
+                return i;
+            }
+        }
+    }
+
+    /**
+     * Finds the table slot of a key, inserting the key if absent.
+     */
+    private int insertionSlot(long key) {
+        if (size + 1 > keys.length * LOAD_FACTOR) {
+            rehash(keys.length * 2);
+        }
+        int m = keys.length - 1;
+        int i = hash(key) & m;
+        while (keys[i] != EMPTY_KEY) {
+            if (keys[i] == key) {
+                return i;
+            }
+            i = (i + 1) & m;
+        }
+        keys[i] = key;
+        size++;
+        return i;
+    }
+
+    private static int hash(long key) {
+        // Murmur3 finalizer, spreads consecutive days and room ids evenly
+        long h = key;
+        h = (h ^ (h >>> 33)) * 0xFF51AFD7ED558CCDL;
+        h = (h ^ (h >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return (int) (h ^ (h >>> 33));
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldStates = states;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY_KEY) {
+                int slot = insertionSlot(oldKeys[i]);
+                states[slot] = oldStates[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        Arrays.fill(keys, EMPTY_KEY);
+        states = new int[capacity];
+        size = 0;
+    }
+}
@@ -0,0 +1,23 @@
+package controllers;
+
+/**
+ * Listener following the progress of a long-running file operation,
+ * which it can also ask to stop.
+ */
+public interface ProgressListener {
+    /**
+     * Called as the operation advances.
+     *
+     * @param done the amount of work done so far, e.g. bytes written
+     */
+    void progress(long done);
+
+    /**
+     * Checks whether the operation should stop as soon as possible.
+     *
+     * @return true if the operation was cancelled, false otherwise
+     */
+    default boolean isCancelled() {
+        return false;
+    }
+}
@@ -0,0 +1,574 @@
+package controllers;
+
+import models.reservation.Reservation;
+import models.reservation.ReservationSeries;
+import models.reservation.ReservationType;
+import models.room.Room;
+
+import utils.metrics.LatencyHistogram;
+import utils.metrics.Metrics;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.StampedLock;
+import java.util.stream.IntStream;
+
+/**
+ * Column-oriented copy of the reservations of a {@link ReservationManager},
+ * for reports over the whole booking history.
+ * <p>
+ * Each reservation is a row of primitive columns (room id, epoch day, start
+ * hour, end hour and type ordinal), kept up to date as the manager notifies
+ * changes. Aggregations scan these arrays in tight loops, split in chunks run
+ * as a parallel stream when there are many rows, instead of walking the
+ * reservation objects. Rows are found for removal through an open-addressing
+ * table keyed by reservation identity, and the last row is moved into the
+ * hole so the columns stay dense.
+ * <p>
+ * Like {@link ReservationManager#getAllReservations()}, only the reservations
+ * held in memory are covered: series occurrences are not included, and in
+ * store mode only the loaded months are.
+ * <p>
+ * The listener callbacks only queue the changes, without taking a lock, so
+ * bookings never wait for the columns or for a scan. The queue is applied
+ * before each scan, and by a notifying thread when it grows long while no
+ * scan is running.
+ */
+public class ReservationColumns implements ReservationListener {
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int CHUNK_SIZE = 1 << 16;
+    private static final byte NO_TYPE = -1;
+    private static final ReservationType[] TYPES = ReservationType.values();
+    private static final int MAX_PENDING_CHANGES = 4096;
+
+    /**
+     * What the hours of a scan are summed by.
+     */
+    private enum Grouping { ROOM, TYPE, DAY }
+
+    /**
+     * Kinds of queued changes, one per listener callback applied to the rows.
+     */
+    private enum ChangeKind { ADD, REMOVE, LOAD, APPEND, EVICT }
+
+    /**
+     * A change notified by the manager and not yet applied to the rows.
+     */
+    private static final class Change {
+        private final ChangeKind kind;
+        private final Reservation reservation;
+        private final List<Reservation> reservations;
+
+        Change(ChangeKind kind, Reservation reservation, List<Reservation> reservations) {
+            this.kind = kind;
+            this.reservation = reservation;
+            this.reservations = reservations;
+        }
+    }
+
+    private final StampedLock lock = new StampedLock();
+    private final Queue<Change> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final Map<Room, Integer> roomIds = new HashMap<>();
+    private final List<Room> roomsById = new ArrayList<>();
+    private Reservation[] reservations = new Reservation[INITIAL_CAPACITY];
+    private int[] rooms = new int[INITIAL_CAPACITY];
+    private int[] days = new int[INITIAL_CAPACITY];
+    private byte[] startHours = new byte[INITIAL_CAPACITY];
+    private byte[] endHours = new byte[INITIAL_CAPACITY];
+    private byte[] types = new byte[INITIAL_CAPACITY];
+    private int[] rowTable = new int[INITIAL_CAPACITY * 2];
+    private int size;
+    private int firstDay = Integer.MAX_VALUE;
+    private int lastDay = Integer.MIN_VALUE;
+    private boolean boundsStale;
+    private final LatencyHistogram scanLatency = Metrics.getRegistry().histogram("analytics.scan.latency");
+
+    /**
+     * Constructs a ReservationColumns holding the manager's current
+     * reservations and follows its changes. It should be created before the
+     * manager is changed from other threads, or changes made meanwhile may be missed.
+     *
+     * @param manager the reservation manager
+     */
+    public ReservationColumns(ReservationManager manager) {
+        manager.addReservationListener(this);
+        List<Reservation> current = manager.getAllReservations();
+        long stamp = lock.writeLock();
+        try {
+            for (Reservation reservation : current) {
+                add(reservation);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Gets the number of rows, one per reservation.
+     *
+     * @return the number of rows
+     */
+    public int getRowCount() {
+        applyPending();
+        long stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Sums the reserved hours of each room over the whole history.
+     *
+     * @return the hours of each room with reservations, in the order rooms were first booked
+     */
+    public Map<Room, Long> getHoursByRoom() {
+        return getHoursByRoom(Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Sums the reserved hours of each room between two dates.
+     *
+     * @param from the first date (inclusive)
+     * @param to the last date (inclusive)
+     * @return the hours of each room with reservations in the range, in the order rooms were first booked
+     */
+    public Map<Room, Long> getHoursByRoom(LocalDate from, LocalDate to) {
+        return getHoursByRoom(toDay(from), toDay(to));
+    }
+
+    /**
+     * Sums the reserved hours of each reservation type over the whole history.
+     * Reservations without a type are left out.
+     *
+     * @return the hours of each type with reservations
+     */
+    public Map<ReservationType, Long> getHoursByType() {
+        return getHoursByType(Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Sums the reserved hours of each reservation type between two dates.
+     * Reservations without a type are left out.
+     *
+     * @param from the first date (inclusive)
+     * @param to the last date (inclusive)
+     * @return the hours of each type with reservations in the range
+     */
+    public Map<ReservationType, Long> getHoursByType(LocalDate from, LocalDate to) {
+        return getHoursByType(toDay(from), toDay(to));
+    }
+
+    /**
+     * Sums the reserved hours of each month over the whole history.
+     *
+     * @return the hours of each month with reservations, in chronological order
+     */
+    public Map<YearMonth, Long> getHoursByMonth() {
+        return getHoursByMonth(Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Sums the reserved hours of each month between two dates.
+     *
+     * @param from the first date (inclusive)
+     * @param to the last date (inclusive)
+     * @return the hours of each month with reservations in the range, in chronological order
+     */
+    public Map<YearMonth, Long> getHoursByMonth(LocalDate from, LocalDate to) {
+        return getHoursByMonth(toDay(from), toDay(to));
+    }
+
+    private Map<Room, Long> getHoursByRoom(int from, int to) {
+        long start = System.nanoTime();
+        applyPending();
+        long stamp = lock.readLock();
+        try {
+            long[] hours = sumHours(Grouping.ROOM, roomsById.size(), 0, from, to);
+            Map<Room, Long> result = new LinkedHashMap<>();
+            for (int id = 0; id < hours.length; id++) {
+                if (hours[id] > 0) {
+                    result.put(roomsById.get(id), hours[id]);
+                }
+            }
+            return result;
+        } finally {
+            lock.unlockRead(stamp);
+            scanLatency.recordSince(start);
+        }
+    }
+
+    private Map<ReservationType, Long> getHoursByType(int from, int to) {
+        long start = System.nanoTime();
+        applyPending();
+        long stamp = lock.readLock();
+        try {
+            long[] hours = sumHours(Grouping.TYPE, TYPES.length, 0, from, to);
+            Map<ReservationType, Long> result = new EnumMap<>(ReservationType.class);
+            for (int type = 0; type < hours.length; type++) {
+                if (hours[type] > 0) {
+                    result.put(TYPES[type], hours[type]);
+                }
+            }
+            return result;
+        } finally {
+            lock.unlockRead(stamp);
+            scanLatency.recordSince(start);
+        }
+    }
+
+    private Map<YearMonth, Long> getHoursByMonth(int from, int to) {
+        long start = System.nanoTime();
+        applyPending();
+        long stamp = lock.readLock();
+        try {
+            Map<YearMonth, Long> result = new TreeMap<>();
+            // Sum by day first; there are few days, so folding them into months is cheap
+            int first = Math.max(from, firstDay);
+            int last = Math.min(to, lastDay);
+            if (size == 0 || first > last) {
+                return result;
+            }
+            long[] hours = sumHours(Grouping.DAY, last - first + 1, first, first, last);
+            for (int day = 0; day < hours.length; day++) {
+                if (hours[day] > 0) {
+                    result.merge(YearMonth.from(LocalDate.ofEpochDay(first + day)), hours[day], Long::sum);
+                }
+            }
+            return result;
+        } finally {
+            lock.unlockRead(stamp);
+            scanLatency.recordSince(start);
+        }
+    }
+
+    /**
+     * Sums the hours of the rows between two days into buckets.
+     * Callers must hold the read lock.
+     *
+     * @param grouping what the buckets are
+     * @param buckets the number of buckets
+     * @param base the key of the first bucket
+     * @param from the first day (inclusive)
+     * @param to the last day (inclusive)
+     * @return the hours of each bucket
+     */
+    private long[] sumHours(Grouping grouping, int buckets, int base, int from, int to) {
+        int rows = size;
+        if (rows <= CHUNK_SIZE) {
+            return sumHours(grouping, buckets, base, from, to, 0, rows);
+        }
+        // The lock held by this thread keeps the columns still while the chunks are summed
+        return IntStream.range(0, (rows + CHUNK_SIZE - 1) / CHUNK_SIZE)
+            .parallel()
+            .mapToObj(chunk -> sumHours(grouping, buckets, base, from, to,
+                chunk * CHUNK_SIZE, Math.min(rows, (chunk + 1) * CHUNK_SIZE)))
+            .reduce(ReservationColumns::addTo)
+            .orElseGet(() -> new long[buckets]);
+    }
+
+    /**
+     * Sums the hours of a range of rows into buckets.
+     */
+    private long[] sumHours(Grouping grouping, int buckets, int base, int from, int to, int firstRow, int endRow) {
+        long[] hours = new long[buckets];
+        for (int row = firstRow; row < endRow; row++) {
+            int day = days[row];
+            if (day < from || day > to) {
+                continue;
+            }
+            int duration = endHours[row] - startHours[row];
+            switch (grouping) {
+                case ROOM -> hours[rooms[row] - base] += duration;
+                case TYPE -> {
+                    if (types[row] != NO_TYPE) {
+                        hours[types[row] - base] += duration;
+                    }
+                }
+                case DAY -> hours[day - base] += duration;
+            }
+        }
+        return hours;
+    }
+
+    private static long[] addTo(long[] sums, long[] other) {
+        for (int i = 0; i < sums.length; i++) {
+            sums[i] += other[i];
+        }
+        return sums;
+    }
+
+    private static int toDay(LocalDate date) {
+        return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, date.toEpochDay()));
+    }
+
+    @Override
+    public void reservationAdded(Reservation reservation) {
+        enqueue(new Change(ChangeKind.ADD, reservation, null));
+    }
+
+    @Override
+    public void reservationRemoved(Reservation reservation) {
+        enqueue(new Change(ChangeKind.REMOVE, reservation, null));
+    }
+
+    @Override
+    public void reservationUpdated(Reservation previous, Reservation updated) {
+        enqueue(new Change(ChangeKind.REMOVE, previous, null));
+        enqueue(new Change(ChangeKind.ADD, updated, null));
+    }
+
+    @Override
+    public void reservationsLoaded(List<Reservation> reservations) {
+        enqueue(new Change(ChangeKind.LOAD, null, reservations));
+    }
+
+    @Override
+    public void reservationsAppended(List<Reservation> reservations, String source) {
+        enqueue(new Change(ChangeKind.APPEND, null, reservations));
+    }
+
+    @Override
+    public void reservationsEvicted(List<Reservation> reservations) {
+        enqueue(new Change(ChangeKind.EVICT, null, reservations));
+    }
+
+    @Override
+    public void seriesAdded(ReservationSeries series) {
+        // Series occurrences are not stored as rows
+    }
+
+    @Override
+    public void seriesRemoved(ReservationSeries series) {
+        // Series occurrences are not stored as rows
+    }
+
+    @Override
+    public void seriesUpdated(ReservationSeries previous, ReservationSeries updated) {
+        // Series occurrences are not stored as rows
+    }
+
+    /**
+     * Queues a change for the rows. When many changes are waiting, the
+     * notifying thread applies them, but only if no scan or other thread
+     * holds the lock; it never waits for it.
+     *
+     * @param change the change
+     */
+    private void enqueue(Change change) {
+        pending.add(change);
+        if (pendingCount.incrementAndGet() >= MAX_PENDING_CHANGES) {
+            long stamp = lock.tryWriteLock();
+            if (stamp != 0) {
+                try {
+                    drain();
+                } finally {
+                    lock.unlockWrite(stamp);
+                }
+            }
+        }
+    }
+
+    /**
+     * Applies the queued changes before a scan.
+     */
+    private void applyPending() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        long stamp = lock.writeLock();
+        try {
+            drain();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Applies the queued changes in the order they were notified.
+     * Callers must hold the write lock.
+     */
+    private void drain() {
+        Change change;
+        while ((change = pending.poll()) != null) {
+            pendingCount.decrementAndGet();
+            switch (change.kind) {
+                case ADD -> add(change.reservation);
+                case REMOVE -> remove(change.reservation);
+                case LOAD -> {
+                    Arrays.fill(reservations, 0, size, null);
+                    Arrays.fill(rowTable, 0);
+                    size = 0;
+                    firstDay = Integer.MAX_VALUE;
+                    lastDay = Integer.MIN_VALUE;
+                    boundsStale = false;
+                    change.reservations.forEach(this::add);
+                }
+                case APPEND -> change.reservations.forEach(this::add);
+                case EVICT -> change.reservations.forEach(this::remove);
+            }
+        }
+        refreshBounds();
+    }
+
+    /**
+     * Appends a row for a reservation, unless it already has one.
+     * Callers must hold the write lock.
+     *
+     * @param reservation the reservation
+     */
+    private void add(Reservation reservation) {
+        if (reservation.getRoom() == null) {
+            return;
+        }
+        int slot = findSlot(reservation);
+        if (slot >= 0) {
+            return;
+        }
+        if (size == reservations.length) {
+            grow();
+            slot = findSlot(reservation);
+        }
+        Integer roomId = roomIds.get(reservation.getRoom());
+        if (roomId == null) {
+            roomId = roomsById.size();
+            roomIds.put(reservation.getRoom(), roomId);
+            roomsById.add(reservation.getRoom());
+        }
+        int row = size++;
+        ReservationType type = reservation.getType();
+        reservations[row] = reservation;
+        rooms[row] = roomId;
+        days[row] = reservation.getEpochDay();
+        startHours[row] = (byte) reservation.getStartHour();
+        endHours[row] = (byte) reservation.getEndHour();
+        types[row] = type == null ? NO_TYPE : (byte) type.ordinal();
+        rowTable[-slot - 1] = row + 1;
+        firstDay = Math.min(firstDay, days[row]);
+        lastDay = Math.max(lastDay, days[row]);
+    }
+
+    /**
+     * Removes the row of a reservation, moving the last row into its place.
+     * Removing a row on the first or last day marks the day bounds for
+     * {@link #refreshBounds}. Callers must hold the write lock.
+     *
+     * @param reservation the reservation
+     */
+    private void remove(Reservation reservation) {
+        int slot = findSlot(reservation);
+        if (slot < 0) {
+            return;
+        }
+        int row = rowTable[slot] - 1;
+        if (days[row] == firstDay || days[row] == lastDay) {
+            boundsStale = true;
+        }
+        clearSlot(slot);
+        int last = --size;
+        if (row != last) {
+            Reservation moved = reservations[last];
+            rowTable[findSlot(moved)] = row + 1;
+            reservations[row] = moved;
+            rooms[row] = rooms[last];
+            days[row] = days[last];
+            startHours[row] = startHours[last];
+            endHours[row] = endHours[last];
+            types[row] = types[last];
+        }
+        reservations[last] = null;
+    }
+
+    /**
+     * Recomputes the first and last day of the rows after a row on one of them
+     * was removed, so the month report does not keep spanning days that are
+     * no longer held. Done once per batch of queued changes rather than once
+     * per removed row, as an eviction removes whole months. Callers must hold
+     * the write lock.
+     */
+    private void refreshBounds() {
+        if (!boundsStale) {
+            return;
+        }
+        boundsStale = false;
+        int first = Integer.MAX_VALUE;
+        int last = Integer.MIN_VALUE;
+        for (int row = 0; row < size; row++) {
+            first = Math.min(first, days[row]);
+            last = Math.max(last, days[row]);
+        }
+        firstDay = first;
+        lastDay = last;
+    }
+
+    /**
+     * Doubles the capacity of the columns and rebuilds the row table.
+     */
+    private void grow() {
+        int capacity = reservations.length * 2;
+        reservations = Arrays.copyOf(reservations, capacity);
+        rooms = Arrays.copyOf(rooms, capacity);
+        days = Arrays.copyOf(days, capacity);
+        startHours = Arrays.copyOf(startHours, capacity);
+        endHours = Arrays.copyOf(endHours, capacity);
+        types = Arrays.copyOf(types, capacity);
+        rowTable = new int[capacity * 2];
+        for (int row = 0; row < size; row++) {
+            rowTable[-findSlot(reservations[row]) - 1] = row + 1;
+        }
+    }
+
+    /**
+     * Finds the row table slot of a reservation. Slots hold the row plus one, or 0 when empty.
+     *
+     * @param reservation the reservation
+     * @return the slot holding its row, or {@code -slot - 1} for the empty slot where it would go
+     */
+    private int findSlot(Reservation reservation) {
+        int mask = rowTable.length - 1;
+        for (int slot = hash(reservation) & mask; ; slot = (slot + 1) & mask) {
+            int entry = rowTable[slot];
+            if (entry == 0) {
+                return -slot - 1;
+            }
+            if (reservations[entry - 1] == reservation) {
+                return slot;
+            }
+        }
+    }
+
+    /**
+     * Empties a slot, shifting back the entries of the same probe run so that lookups still find them.
+     */
+    private void clearSlot(int slot) {
+        int mask = rowTable.length - 1;
+        int hole = slot;
+        for (int next = (hole + 1) & mask; rowTable[next] != 0; next = (next + 1) & mask) {
+            int home = hash(reservations[rowTable[next] - 1]) & mask;
+            // Entries whose home slot lies after the hole, up to this one, must stay where they are
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                rowTable[hole] = rowTable[next];
+                hole = next;
+            }
+        }
+        rowTable[hole] = 0;
+    }
+
+    private static int hash(Reservation reservation) {
+        int h = System.identityHashCode(reservation);
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,11 @@
+package controllers;
+
+/**
+ * Enum representing the on-disk formats of reservation files.
+ */
+public enum ReservationFileFormat {
+    /** Version 1: one key=value block of text per reservation. */
+    TEXT,
+    /** Version 2: binary header, string tables and fixed-width records. */
+    BINARY
+}
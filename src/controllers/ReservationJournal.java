@@ -0,0 +1,633 @@
+package controllers;
+
+import models.reservation.Recurrence;
+import models.reservation.Reservation;
+import models.reservation.ReservationSeries;
+import models.reservation.ReservationType;
+import models.room.Room;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Write-ahead journal of reservation changes.
+ * <p>
+ * Every change made through the {@link ReservationManager} is queued for
+ * {@code <base>.journal}. A writer thread appends the queued records and
+ * forces them to disk together, outside the manager's lock, so bookings do
+ * not wait for each other's disk syncs and a crash loses at most the changes
+ * of the last few milliseconds. {@link #sync()} waits until the changes made
+ * so far are on disk. {@link #compact()} folds the
+ * journal into the {@code <base>.resv} snapshot, and {@link #open()} restores
+ * the manager from the snapshot followed by the journal tail.
+ * <p>
+ * Reservations streamed in from a file are journaled as a single reference
+ * to the file rather than record by record. The next compaction is the
+ * checkpoint that takes them into the snapshot, after which the journal no
+ * longer depends on the file.
+ * <p>
+ * Fields are tab-separated. Tabs, line breaks and backslashes inside a
+ * field are escaped with a backslash, and a missing name or type is written
+ * as {@code \N}, so that it reads back as null rather than as text.
+ * <p>
+ * Replay is idempotent: records already contained in the snapshot are
+ * rejected as conflicts or not found, so a crash in the middle of a
+ * compaction only causes records to be replayed twice.
+ */
+public class ReservationJournal implements ReservationListener {
+    private static final String SNAPSHOT_EXTENSION = ".resv";
+    private static final String JOURNAL_EXTENSION = ".journal";
+    private static final String ROTATED_EXTENSION = ".journal.old";
+    private static final String SEPARATOR = "\t";
+    private static final String NULL_FIELD = "\\N";
+
+    private static final String ADD = "ADD";
+    private static final String REMOVE = "REMOVE";
+    private static final String UPDATE = "UPDATE";
+    private static final String RESET = "RESET";
+    private static final String APPEND = "APPEND";
+    private static final String LOADED = "LOADED";
+    private static final String APPEND_FILE = "APPEND_FILE";
+    private static final String ADD_SERIES = "ADD_SERIES";
+    private static final String REMOVE_SERIES = "REMOVE_SERIES";
+    private static final String UPDATE_SERIES = "UPDATE_SERIES";
+    private static final int SERIES_FIELDS = 9;
+    private static final int REPLAY_BATCH_SIZE = 10_000;
+
+    private final ReservationManager manager;
+    private final FileManager fileManager;
+    private final Path snapshotFile;
+    private final Path journalFile;
+    private final Path rotatedFile;
+    private FileChannel channel;
+
+    private final Object queueLock = new Object();
+    private StringBuilder queued = new StringBuilder();
+    private long queuedGroups;
+    private long writtenGroups;
+    private String journaledSource;
+    private boolean stopping;
+    private Thread writer;
+
+    /**
+     * Constructs a ReservationJournal.
+     *
+     * @param baseName the base name of the snapshot and journal files
+     * @param manager the reservation manager
+     * @param fileManager the file manager used to read and write snapshots
+     */
+    public ReservationJournal(String baseName, ReservationManager manager, FileManager fileManager) {
+        this.manager = manager;
+        this.fileManager = fileManager;
+        this.snapshotFile = Paths.get(baseName + SNAPSHOT_EXTENSION);
+        this.journalFile = Paths.get(baseName + JOURNAL_EXTENSION);
+        this.rotatedFile = Paths.get(baseName + ROTATED_EXTENSION);
+    }
+
+    /**
+     * Restores the manager from the snapshot and the journal, then starts
+     * journaling its changes.
+     *
+     * @throws IOException if the journal cannot be opened
+     */
+    public synchronized void open() throws IOException {
+        if (Files.exists(snapshotFile)) {
+            manager.loadReservations(fileManager.loadReservations(snapshotFile.toString(), manager));
+            fileManager.loadSeries(snapshotFile.toString(), manager).forEach(manager::addSeries);
+        }
+        replay(rotatedFile);
+        replay(journalFile);
+        channel = openChannel();
+        synchronized (queueLock) {
+            stopping = false;
+            writer = new Thread(this::writeQueued, "journal-writer");
+            writer.setDaemon(true);
+            writer.start();
+        }
+        manager.addReservationListener(this);
+    }
+
+    /**
+     * Waits until every change queued so far has been forced to disk.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void sync() throws InterruptedException {
+        synchronized (queueLock) {
+            long target = queuedGroups;
+            while (writtenGroups < target && writer != null && writer.isAlive()) {
+                queueLock.wait();
+            }
+        }
+    }
+
+    /**
+     * Folds the journal into a new snapshot.
+     * The journal is rotated first, then the snapshot is atomically replaced;
+     * the rotated journal is deleted only once the snapshot is on disk.
+     *
+     * @return the size of the snapshot in bytes
+     * @throws IOException if the snapshot cannot be written
+     */
+    public long compact() throws IOException {
+        synchronized (this) {
+            if (channel == null) {
+                return 0;
+            }
+            rotate();
+        }
+        synchronized (queueLock) {
+            // Batches of the same file appended from now on must refer to it again in the new journal
+            journaledSource = null;
+        }
+        List<Reservation> snapshot = manager.getAllReservations();
+        List<ReservationSeries> series = manager.getAllSeries();
+        long bytes = fileManager.saveReservations(snapshotFile.toString(), snapshot, series);
+        if (bytes < 0) {
+            throw new IOException("Failed to write snapshot " + snapshotFile);
+        }
+        synchronized (this) {
+            Files.deleteIfExists(rotatedFile);
+        }
+        return bytes;
+    }
+
+    /**
+     * Stops journaling and closes the journal file once the queued changes are written.
+     */
+    public void close() {
+        manager.removeReservationListener(this);
+        Thread stopped;
+        synchronized (queueLock) {
+            stopping = true;
+            stopped = writer;
+            queueLock.notifyAll();
+        }
+        if (stopped != null) {
+            try {
+                stopped.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        closeChannel();
+    }
+
+    private synchronized void closeChannel() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            channel = null;
+        }
+    }
+
+    @Override
+    public void reservationAdded(Reservation reservation) {
+        append(ADD + SEPARATOR + encode(reservation));
+    }
+
+    @Override
+    public void reservationRemoved(Reservation reservation) {
+        append(REMOVE + SEPARATOR + encode(reservation));
+    }
+
+    @Override
+    public void reservationUpdated(Reservation previous, Reservation updated) {
+        append(UPDATE + SEPARATOR + encode(previous) + SEPARATOR + encode(updated));
+    }
+
+    @Override
+    public void reservationsLoaded(List<Reservation> reservations) {
+        appendBatch(RESET, reservations);
+    }
+
+    @Override
+    public void reservationsAppended(List<Reservation> reservations, String source) {
+        if (source == null) {
+            appendBatch(APPEND, reservations);
+        } else {
+            appendSource(source);
+        }
+    }
+
+    @Override
+    public void reservationsEvicted(List<Reservation> reservations) {
+        // Evicted reservations are still stored, nothing to replay
+    }
+
+    @Override
+    public void seriesAdded(ReservationSeries series) {
+        append(ADD_SERIES + SEPARATOR + encode(series));
+    }
+
+    @Override
+    public void seriesRemoved(ReservationSeries series) {
+        append(REMOVE_SERIES + SEPARATOR + encode(series));
+    }
+
+    @Override
+    public void seriesUpdated(ReservationSeries previous, ReservationSeries updated) {
+        append(UPDATE_SERIES + SEPARATOR + encode(previous) + SEPARATOR + encode(updated));
+    }
+
+    /**
+     * Appends a batch header followed by one record per reservation.
+     *
+     * @param header the batch header
+     * @param reservations the reservations of the batch
+     */
+    private void appendBatch(String header, List<Reservation> reservations) {
+        StringBuilder records = new StringBuilder(header);
+        for (Reservation reservation : reservations) {
+            records.append('\n').append(LOADED).append(SEPARATOR).append(encode(reservation));
+        }
+        append(records.toString());
+    }
+
+    /**
+     * Queues a reference to the file a batch was read from, unless the
+     * previous record already refers to it: a file streamed in batches is
+     * journaled once.
+     *
+     * @param source the file
+     */
+    private void appendSource(String source) {
+        String path = Paths.get(source).toAbsolutePath().toString();
+        synchronized (queueLock) {
+            if (path.equals(journaledSource)) {
+                return;
+            }
+            append(APPEND_FILE + SEPARATOR + field(path));
+            journaledSource = path;
+        }
+    }
+
+    /**
+     * Queues records for the writer thread. Called from the manager's
+     * listener callbacks, so it never waits for the disk.
+     *
+     * @param records the records, separated by newlines
+     */
+    private void append(String records) {
+        synchronized (queueLock) {
+            if (stopping) {
+                return;
+            }
+            queued.append(records).append('\n');
+            queuedGroups++;
+            journaledSource = null;
+            queueLock.notifyAll();
+        }
+    }
+
+    /**
+     * Writes the queued records until the journal is closed. Records queued
+     * while a group is being forced to disk are written together in the next group.
+     */
+    private void writeQueued() {
+        while (true) {
+            String records;
+            long groups;
+            synchronized (queueLock) {
+                while (queued.length() == 0 && !stopping) {
+                    try {
+                        queueLock.wait();
+                    } catch (InterruptedException e) {
+                        // Keep writing until the journal is closed
+                    }
+                }
+                if (queued.length() == 0) {
+                    return;
+                }
+                records = queued.toString();
+                queued = new StringBuilder();
+                groups = queuedGroups;
+            }
+            write(records);
+            synchronized (queueLock) {
+                writtenGroups = groups;
+                queueLock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Appends records to the journal file and forces them to disk.
+     *
+     * @param records the records, each ending with a newline
+     */
+    private synchronized void write(String records) {
+        if (channel == null) {
+            return;
+        }
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(records.getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Moves the current journal aside and starts a new one.
+     * If a previous compaction did not finish, the journal is appended to
+     * the rotated file so that no record is dropped.
+     */
+    private void rotate() throws IOException {
+        channel.close();
+        if (Files.exists(rotatedFile)) {
+            try (FileChannel rotated = FileChannel.open(rotatedFile, StandardOpenOption.APPEND);
+                 FileChannel current = FileChannel.open(journalFile, StandardOpenOption.READ)) {
+                current.transferTo(0, current.size(), rotated);
+                rotated.force(false);
+            }
+            Files.delete(journalFile);
+        } else {
+            Files.move(journalFile, rotatedFile, StandardCopyOption.ATOMIC_MOVE);
+        }
+        channel = openChannel();
+    }
+
+    private FileChannel openChannel() throws IOException {
+        return FileChannel.open(journalFile,
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Replays a journal file into the manager.
+     * A truncated last record, left by a crash during an append, is ignored.
+     *
+     * @param file the journal file
+     * @throws IOException if the file cannot be read
+     */
+    private void replay(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return;
+        }
+        List<Reservation> pendingLoad = null;
+        boolean pendingReset = false;
+        // Repeated names share one string for the duration of the replay
+        Map<String, String> names = new HashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.split(SEPARATOR, -1);
+                try {
+                    if (parts[0].equals(LOADED) && pendingLoad != null) {
+                        pendingLoad.add(decode(parts, 1, names));
+                        continue;
+                    }
+                    if (pendingLoad != null) {
+                        flushBatch(pendingLoad, pendingReset);
+                        pendingLoad = null;
+                    }
+                    switch (parts[0]) {
+                        case RESET:
+                        case APPEND:
+                            pendingLoad = new ArrayList<>();
+                            pendingReset = parts[0].equals(RESET);
+                            break;
+                        case APPEND_FILE:
+                            replaySource(text(parts[1]));
+                            break;
+                        case ADD:
+                            manager.addReservation(decode(parts, 1, names));
+                            break;
+                        case REMOVE:
+                            Reservation removed = find(decode(parts, 1, names));
+                            if (removed != null) {
+                                manager.removeReservation(removed);
+                            }
+                            break;
+                        case UPDATE:
+                            Reservation updated = decode(parts, 7, names);
+                            Reservation previous = find(decode(parts, 1, names));
+                            if (previous != null) {
+                                manager.updateReservation(previous, updated.getDate(), updated.getStartTime(),
+                                    updated.getEndTime(), updated.getReservedBy(), updated.getType());
+                            } else {
+                                manager.addReservation(updated);
+                            }
+                            break;
+                        case ADD_SERIES:
+                            manager.addSeries(decodeSeries(parts, 1));
+                            break;
+                        case REMOVE_SERIES:
+                            manager.removeSeries(decodeSeries(parts, 1));
+                            break;
+                        case UPDATE_SERIES:
+                            ReservationSeries updatedSeries = decodeSeries(parts, 1 + SERIES_FIELDS);
+                            if (!manager.updateSeries(decodeSeries(parts, 1), updatedSeries)) {
+                                manager.addSeries(updatedSeries);
+                            }
+                            break;
+                    }
+                } catch (RuntimeException e) {
+                    System.out.println("Skipping unreadable journal record: " + line);
+                }
+            }
+        }
+        if (pendingLoad != null) {
+            flushBatch(pendingLoad, pendingReset);
+        }
+    }
+
+    /**
+     * Appends the reservations of a file referred to by the journal,
+     * skipping those already present.
+     *
+     * @param source the file
+     */
+    private void replaySource(String source) {
+        try {
+            fileManager.streamReservations(source, manager, REPLAY_BATCH_SIZE,
+                batch -> manager.appendReservations(batch.stream().filter(r -> find(r) == null).toList(), source));
+        } catch (IOException e) {
+            System.out.println("Skipping journal reference to unreadable file: " + source);
+        }
+    }
+
+    /**
+     * Applies a replayed batch of loaded reservations.
+     * Appended reservations already present are skipped, so the batch can be replayed twice.
+     *
+     * @param reservations the reservations of the batch
+     * @param reset whether the batch replaced all reservations
+     */
+    private void flushBatch(List<Reservation> reservations, boolean reset) {
+        if (reset) {
+            manager.loadReservations(reservations);
+        } else {
+            manager.appendReservations(reservations.stream().filter(r -> find(r) == null).toList());
+        }
+    }
+
+    /**
+     * Finds the indexed reservation equal to a journaled one.
+     *
+     * @param journaled the reservation read from the journal
+     * @return the matching reservation, or null if none matches every field
+     */
+    private Reservation find(Reservation journaled) {
+        Reservation existing = manager.findReservation(journaled.getRoom(), journaled.getDate(), journaled.getStartTime());
+        if (existing != null
+                && existing.getEndTime().equals(journaled.getEndTime())
+                && Objects.equals(existing.getReservedBy(), journaled.getReservedBy())
+                && existing.getType() == journaled.getType()) {
+            return existing;
+        }
+        return null;
+    }
+
+    private static String encode(Reservation reservation) {
+        return String.join(SEPARATOR,
+            field(reservation.getRoom().getName()),
+            reservation.getDate().toString(),
+            reservation.getStartTime().toString(),
+            reservation.getEndTime().toString(),
+            field(reservation.getReservedBy()),
+            field(reservation.getType() == null ? null : reservation.getType().name()));
+    }
+
+    private Reservation decode(String[] parts, int offset, Map<String, String> names) {
+        Room room = manager.getRoom(text(parts[offset]));
+        if (room == null) {
+            throw new IllegalArgumentException("Unknown room: " + parts[offset]);
+        }
+        String reservedBy = text(parts[offset + 4]);
+        return new Reservation(room,
+            LocalDate.parse(parts[offset + 1]),
+            LocalTime.parse(parts[offset + 2]),
+            LocalTime.parse(parts[offset + 3]),
+            reservedBy == null ? null : names.computeIfAbsent(reservedBy, name -> name),
+            type(parts[offset + 5]));
+    }
+
+    private static String encode(ReservationSeries series) {
+        return String.join(SEPARATOR,
+            field(series.getRoom().getName()),
+            series.getFirstDate().toString(),
+            series.getLastDate().toString(),
+            series.getRecurrence().name(),
+            series.getStartTime().toString(),
+            series.getEndTime().toString(),
+            field(series.getReservedBy()),
+            field(series.getType() == null ? null : series.getType().name()),
+            String.join(",", series.getExceptions().stream().map(LocalDate::toString).toList()));
+    }
+
+    private ReservationSeries decodeSeries(String[] parts, int offset) {
+        Room room = manager.getRoom(text(parts[offset]));
+        if (room == null) {
+            throw new IllegalArgumentException("Unknown room: " + parts[offset]);
+        }
+        List<LocalDate> exceptions = new ArrayList<>();
+        if (!parts[offset + 8].isEmpty()) {
+            for (String date : parts[offset + 8].split(",")) {
+                exceptions.add(LocalDate.parse(date));
+            }
+        }
+        return new ReservationSeries(room,
+            LocalDate.parse(parts[offset + 1]),
+            LocalDate.parse(parts[offset + 2]),
+            Recurrence.valueOf(parts[offset + 3]),
+            LocalTime.parse(parts[offset + 4]),
+            LocalTime.parse(parts[offset + 5]),
+            text(parts[offset + 6]),
+            type(parts[offset + 7]),
+            exceptions);
+    }
+
+    /**
+     * Encodes a text field, escaping the characters that delimit fields and
+     * records, or the null marker for a missing value.
+     *
+     * @param value the value, may be null
+     * @return the encoded field
+     */
+    private static String field(String value) {
+        if (value == null) {
+            return NULL_FIELD;
+        }
+        StringBuilder escaped = null;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            String escape = switch (c) {
+                case '\\' -> "\\\\";
+                case '\t' -> "\\t";
+                case '\n' -> "\\n";
+                case '\r' -> "\\r";
+                default -> null;
+            };
+            if (escape != null && escaped == null) {
+                escaped = new StringBuilder(value.length() + 8).append(value, 0, i);
+            }
+            if (escaped != null) {
+                if (escape != null) {
+                    escaped.append(escape);
+                } else {
+                    escaped.append(c);
+                }
+            }
+        }
+        return escaped == null ? value : escaped.toString();
+    }
+
+    /**
+     * Decodes a text field written by {@link #field}.
+     *
+     * @param field the encoded field
+     * @return the value, or null for the null marker
+     */
+    private static String text(String field) {
+        if (field.equals(NULL_FIELD)) {
+            return null;
+        }
+        if (field.indexOf('\\') < 0) {
+            return field;
+        }
+        StringBuilder value = new StringBuilder(field.length());
+        for (int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            if (c != '\\' || i + 1 == field.length()) {
+                value.append(c);
+                continue;
+            }
+            char escaped = field.charAt(++i);
+            switch (escaped) {
+                case 't' -> value.append('\t');
+                case 'n' -> value.append('\n');
+                case 'r' -> value.append('\r');
+                default -> value.append(escaped);
+            }
+        }
+        return value.toString();
+    }
+
+    /**
+     * Decodes a reservation type field.
+     *
+     * @param field the encoded field
+     * @return the type, or null for the null marker
+     */
+    private static ReservationType type(String field) {
+        String name = text(field);
+        return name == null ? null : ReservationType.valueOf(name);
+    }
+}
@@ -0,0 +1,87 @@
+package controllers;
+
+import models.reservation.Reservation;
+import models.reservation.ReservationSeries;
+
+import java.util.List;
+
+/**
+ * Listener notified of reservation changes in a {@link ReservationManager}.
+ * <p>
+ * Notifications are delivered on the thread that made the change, while the
+ * manager's lock is held. Changes to a room on a given day arrive in the
+ * order they were applied, but bookings and cancellations of different rooms
+ * or days may be delivered concurrently from several threads, so
+ * implementations must be thread-safe. Implementations must be quick and must
+ * not call back into the manager.
+ */
+public interface ReservationListener {
+    /**
+     * Called after a reservation has been added.
+     *
+     * @param reservation the added reservation
+     */
+    void reservationAdded(Reservation reservation);
+
+    /**
+     * Called after a reservation has been removed.
+     *
+     * @param reservation the removed reservation
+     */
+    void reservationRemoved(Reservation reservation);
+
+    /**
+     * Called after a reservation has been replaced by an updated one.
+     *
+     * @param previous the reservation before the update
+     * @param updated the reservation after the update
+     */
+    void reservationUpdated(Reservation previous, Reservation updated);
+
+    /**
+     * Called after all reservations have been replaced, e.g. when a file is loaded.
+     *
+     * @param reservations the reservations now held by the manager
+     */
+    void reservationsLoaded(List<Reservation> reservations);
+
+    /**
+     * Called after a batch of reservations has been appended, e.g. while a file is streamed in.
+     *
+     * @param reservations the appended reservations
+     * @param source the file the reservations were read from, or null if they were not read from a file
+     */
+    void reservationsAppended(List<Reservation> reservations, String source);
+
+    /**
+     * Called after reservations have been dropped from memory by
+     * {@link ReservationManager#evictReservations}. They are not deleted and
+     * can be loaded again from the store that saved them.
+     *
+     * @param reservations the evicted reservations
+     */
+    void reservationsEvicted(List<Reservation> reservations);
+
+    /**
+     * Called after a reservation series has been added.
+     *
+     * @param series the added series
+     */
+    void seriesAdded(ReservationSeries series);
+
+    /**
+     * Called after a reservation series has been removed.
+     *
+     * @param series the removed series
+     */
+    void seriesRemoved(ReservationSeries series);
+
+    /**
+     * Called after a reservation series has been replaced, e.g. when one of
+     * its occurrences was cancelled.
+     *
+     * @param previous the series before the update
+     * @param updated the series after the update
+     */
+    void seriesUpdated(ReservationSeries previous, ReservationSeries updated);
+}
@@ -1,30 +1,120 @@
 package controllers;
 
+import models.reservation.AvailableSlot;
 import models.reservation.Reservation;
+import models.reservation.ReservationSeries;
+import models.reservation.ReservationType;
 import models.room.Room;
+import models.room.RoomFeature;
+import models.room.RoomType;
+import utils.metrics.Counter;
+import utils.metrics.LatencyHistogram;
+import utils.metrics.Metrics;
+import utils.metrics.MetricsRegistry;
 
+import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.BooleanSupplier;
 
 /**
  * Manages reservations and rooms.
+ * <p>
+ * The manager is safe for concurrent use. Bookings and cancellations of
+ * single reservations only take the lock in shared mode: they claim and free
+ * slots with a compare-and-set on the occupancy grid and publish the change
+ * under a small lock striped by room and day, so changes to different rooms
+ * or days never wait on each other and a booking that loses the race for a
+ * slot fails at once. Other writers are serialized by a short write lock and
+ * never wait on I/O; per-day lists are immutable and replaced on change, so
+ * per-date queries are lock-free and bulk readers such as auto-save copy a
+ * snapshot under a brief read lock.
+ * <p>
+ * Recurring bookings are kept as {@link ReservationSeries}, indexed by room
+ * and by day of the week, and expanded into occurrences only when a day or
+ * room is read. Single reservations and series never overlap.
+ * <p>
+ * With a {@link ReservationStore} attached, only part of the single
+ * reservations is held in memory: the store is asked to load a date range
+ * before it is checked for conflicts, and may evict ranges it has stored.
  */
 public class ReservationManager {
     private static final LocalTime OPENING_TIME = LocalTime.of(8, 0);
     private static final LocalTime CLOSING_TIME = LocalTime.of(18, 0);
+    private static final int LOAD_BATCH_SIZE = 10_000;
+    private static final int DAY_LOCKS = 256;
+    private static final Comparator<Reservation> BY_START_TIME = Comparator.comparingInt(Reservation::getStartHour);
     
     private final Map<String, Room> rooms;
-    private final List<Room> sortedRooms;
-    private final List<Reservation> reservations;
+    private final Map<Room, Integer> roomIds;
+    private final Map<Room, NavigableMap<LocalDate, List<Reservation>>> roomIndex;
+    private final NavigableMap<LocalDate, List<Reservation>> dateIndex;
+    private final Map<Room, List<ReservationSeries>> seriesByRoom;
+    private final Map<DayOfWeek, List<ReservationSeries>> seriesByDay;
+    private final OccupancyGrid occupancy;
+    private final StampedLock lock;
+    private final Object[] dayLocks;
+    private final List<ReservationListener> listeners;
+    private final List<RoomListener> roomListeners;
+    private int nextRoomId;
+    private volatile RoomIndex roomCatalog;
+    private volatile ReservationStore store;
+    private final LongAdder reservationCount;
+    private final LongAdder generation;
+
+    private final Counter addAccepted;
+    private final Counter rejectedUnknownRoom;
+    private final Counter rejectedOutsideHours;
+    private final Counter rejectedInvalidDuration;
+    private final Counter rejectedConflict;
+    private final Counter removed;
+    private final Counter removeNotFound;
+    private final LatencyHistogram addLatency;
+    private final LatencyHistogram removeLatency;
+    private final LatencyHistogram dateQueryLatency;
 
     /**
      * Constructs a ReservationManager.
      */
     public ReservationManager() {
-        this.rooms = new HashMap<>();
-        this.sortedRooms = new ArrayList<>();
-        this.reservations = new ArrayList<>();
+        this.rooms = new ConcurrentHashMap<>();
+        this.roomIds = new ConcurrentHashMap<>();
+        this.roomIndex = new ConcurrentHashMap<>();
+        this.dateIndex = new ConcurrentSkipListMap<>();
+        this.seriesByRoom = new ConcurrentHashMap<>();
+        this.seriesByDay = new ConcurrentHashMap<>();
+        this.occupancy = new OccupancyGrid();
+        this.lock = new StampedLock();
+        this.dayLocks = new Object[DAY_LOCKS];
+        for (int i = 0; i < DAY_LOCKS; i++) {
+            dayLocks[i] = new Object();
+        }
+        this.reservationCount = new LongAdder();
+        this.generation = new LongAdder();
+        this.listeners = new CopyOnWriteArrayList<>();
+        this.roomListeners = new CopyOnWriteArrayList<>();
+        this.roomCatalog = new RoomIndex(List.of());
+
+        MetricsRegistry metrics = Metrics.getRegistry();
+        this.addAccepted = metrics.counter("reservations.add.accepted");
+        this.rejectedUnknownRoom = metrics.counter("reservations.add.rejected.unknownRoom");
+        this.rejectedOutsideHours = metrics.counter("reservations.add.rejected.outsideBusinessHours");
+        this.rejectedInvalidDuration = metrics.counter("reservations.add.rejected.invalidDuration");
+        this.rejectedConflict = metrics.counter("reservations.add.rejected.conflict");
+        this.removed = metrics.counter("reservations.remove.removed");
+        this.removeNotFound = metrics.counter("reservations.remove.notFound");
+        this.addLatency = metrics.histogram("reservations.add.latency");
+        this.removeLatency = metrics.histogram("reservations.remove.latency");
+        this.dateQueryLatency = metrics.histogram("reservations.queryByDate.latency");
+        metrics.gauge("reservations.count", reservationCount::sum);
+        metrics.gauge("series.count", () -> seriesByRoom.values().stream().mapToLong(List::size).sum());
+        metrics.gauge("rooms.count", rooms::size);
     }
 
     /**
@@ -33,9 +123,61 @@ public class ReservationManager {
      * @param room the room to add
      */
     public void addRoom(Room room) {
-        rooms.put(room.getName(), room);
-        sortedRooms.add(room);
-        sortedRooms.sort(Comparator.comparing(Room::getName));
+        addRooms(List.of(room));
+    }
+
+    /**
+     * Adds several rooms to the manager, rebuilding the room indexes only once.
+     *
+     * @param newRooms the rooms to add
+     */
+    public void addRooms(Collection<Room> newRooms) {
+        long stamp = lock.writeLock();
+        try {
+            List<Room> added = new ArrayList<>();
+            for (Room room : newRooms) {
+                if (rooms.putIfAbsent(room.getName(), room) == null) {
+                    roomIds.put(room, nextRoomId++);
+                    added.add(room);
+                }
+            }
+            if (added.isEmpty()) {
+                return;
+            }
+            roomCatalog = new RoomIndex(rooms.values());
+            List<Room> addedRooms = Collections.unmodifiableList(added);
+            roomListeners.forEach(listener -> listener.roomsAdded(addedRooms));
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Removes a room from the manager.
+     * A room can only be removed while it has no reservations or series.
+     *
+     * @param room the room to remove
+     * @return true if the room was removed, false if it is unknown or still booked
+     */
+    public boolean removeRoom(Room room) {
+        long stamp = lock.writeLock();
+        try {
+            if (rooms.get(room.getName()) != room) {
+                return false;
+            }
+            NavigableMap<LocalDate, List<Reservation>> roomDays = roomIndex.get(room);
+            if ((roomDays != null && !roomDays.isEmpty()) || seriesByRoom.containsKey(room)) {
+                return false;
+            }
+            rooms.remove(room.getName());
+            roomIds.remove(room);
+            roomIndex.remove(room);
+            roomCatalog = new RoomIndex(rooms.values());
+            roomListeners.forEach(listener -> listener.roomRemoved(room));
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
     }
 
     /**
@@ -48,107 +190,1084 @@ public class ReservationManager {
         return rooms.get(name);
     }
 
+    /**
+     * Registers a listener notified of every reservation change.
+     *
+     * @param listener the listener
+     */
+    public void addReservationListener(ReservationListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Unregisters a reservation listener.
+     *
+     * @param listener the listener
+     */
+    public void removeReservationListener(ReservationListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Registers a listener notified when rooms are added or removed.
+     *
+     * @param listener the listener
+     */
+    public void addRoomListener(RoomListener listener) {
+        roomListeners.add(listener);
+    }
+
+    /**
+     * Unregisters a room listener.
+     *
+     * @param listener the listener
+     */
+    public void removeRoomListener(RoomListener listener) {
+        roomListeners.remove(listener);
+    }
+
+    /**
+     * Attaches the store holding the reservations not kept in memory.
+     *
+     * @param store the store, or null to hold every reservation in memory
+     */
+    public void setReservationStore(ReservationStore store) {
+        this.store = store;
+    }
+
+    /**
+     * Gets the attached reservation store.
+     *
+     * @return the store, or null if every reservation is held in memory
+     */
+    public ReservationStore getReservationStore() {
+        return store;
+    }
+
+    /**
+     * Makes sure the reservations of a date range are in memory, loading them
+     * from the attached store if needed. Does nothing without a store.
+     *
+     * @param from the first date
+     * @param to the last date, inclusive
+     */
+    public void ensureLoaded(LocalDate from, LocalDate to) {
+        ReservationStore current = store;
+        if (current != null) {
+            current.ensureLoaded(from, to);
+        }
+    }
+
+    /**
+     * Loads a date range from the attached store, if any, and keeps it in
+     * memory until {@link #unpin} is called, so it is not evicted between a
+     * conflict check and the change it allows.
+     *
+     * @param from the first date
+     * @param to the last date, inclusive
+     * @return the store holding the pin, to be passed to {@link #unpin}, or null without a store
+     */
+    private ReservationStore pin(LocalDate from, LocalDate to) {
+        ReservationStore current = store;
+        if (current != null) {
+            current.pin(from, to);
+        }
+        return current;
+    }
+
+    /**
+     * Releases a date range pinned by {@link #pin}.
+     *
+     * @param pinned the store returned by {@link #pin}, or null
+     * @param from the first date
+     * @param to the last date, inclusive
+     */
+    private static void unpin(ReservationStore pinned, LocalDate from, LocalDate to) {
+        if (pinned != null) {
+            pinned.unpin(from, to);
+        }
+    }
+
+    /**
+     * Finds the reservation of a room starting at a given time.
+     *
+     * @param room the room
+     * @param date the date
+     * @param startTime the start time
+     * @return the reservation, or null if there is none
+     */
+    public Reservation findReservation(Room room, LocalDate date, LocalTime startTime) {
+        NavigableMap<LocalDate, List<Reservation>> roomDays = roomIndex.get(room);
+        List<Reservation> day = roomDays == null ? null : roomDays.get(date);
+        if (day != null) {
+            for (Reservation reservation : day) {
+                if (reservation.getStartTime().equals(startTime)) {
+                    return reservation;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets the dense numeric id assigned to a room when it was added.
+     *
+     * @param room the room
+     * @return the room id, or -1 if the room is unknown
+     */
+    public int getRoomId(Room room) {
+        Integer id = roomIds.get(room);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Gets the change generation, incremented on every reservation change.
+     * Views can compare it with a cached value to know when to refresh.
+     *
+     * @return the current generation
+     */
+    public long getGeneration() {
+        return generation.sum();
+    }
+
+    /**
+     * Gets the number of single reservations held in memory.
+     *
+     * @return the reservation count
+     */
+    public int getReservationCount() {
+        return reservationCount.intValue();
+    }
+
+    /**
+     * Gets the version stamp of a room on a date, which changes whenever the
+     * slots booked by its single reservations change. Comparing two reads
+     * tells whether the day changed in between.
+     *
+     * @param room the room
+     * @param date the date
+     * @return the version stamp, 0 for an unknown room or a day never booked
+     */
+    public int getDayVersion(Room room, LocalDate date) {
+        long stamp = lock.readLock();
+        try {
+            int roomId = getRoomId(room);
+            return roomId < 0 ? 0 : occupancy.getVersion(roomId, date.toEpochDay());
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
     /**
      * Gets all rooms.
      *
      * @return an unmodifiable collection of all rooms
      */
     public Collection<Room> getAllRooms() {
-        return Collections.unmodifiableCollection(sortedRooms);
+        return roomCatalog.getRoomsByName();
+    }
+
+    /**
+     * Finds the rooms matching the given requirements using the capacity and feature indexes.
+     *
+     * @param minCapacity the minimum room capacity
+     * @param requiredFeatures the features the room must offer, may be empty
+     * @param roomType the required room type, or null for any type
+     * @return the matching rooms, sorted by capacity then name
+     */
+    public List<Room> findRooms(int minCapacity, Set<RoomFeature> requiredFeatures, RoomType roomType) {
+        return roomCatalog.find(minCapacity, RoomFeature.maskOf(requiredFeatures), roomType);
     }
 
     /**
      * Adds a reservation.
+     * The slots are claimed with a compare-and-set on the occupancy grid
+     * under the shared lock, so bookings of different rooms or days never
+     * wait on each other, and a booking whose slots are taken is rejected at
+     * once instead of waiting for the one that took them.
      *
      * @param reservation the reservation to add
      * @return true if the reservation was added, false otherwise
      */
     public boolean addReservation(Reservation reservation) {
-        if (reservation.getStartTime().isBefore(OPENING_TIME) || 
-            reservation.getEndTime().isAfter(CLOSING_TIME)) {
+        long start = System.nanoTime();
+        Counter rejection = checkSlot(reservation.getRoom(), reservation.getStartTime(), reservation.getEndTime());
+        if (rejection != null) {
+            rejection.increment();
+            addLatency.recordSince(start);
             return false;
         }
+        LocalDate date = reservation.getDate();
+        ReservationStore pinned = pin(date, date);
 
-        int duration = reservation.getDurationHours();
-        if (!reservation.getRoom().isValidReservationDuration(duration)) {
-            return false;
-        }
+        Room room = reservation.getRoom();
+        long epochDay = reservation.getEpochDay();
+        int mask = OccupancyGrid.slotMask(reservation.getStartHour(), reservation.getEndHour());
+        int claim;
+        try {
+            long stamp = lock.readLock();
+            try {
+                int roomId = getRoomId(room);
+                claim = roomId < 0 ? OccupancyGrid.CONFLICT
+                    : occupancy.tryOccupy(roomId, epochDay, mask, seriesSlots(room, date, null));
+                if (claim == OccupancyGrid.CLAIMED) {
+                    // Changes to the same day are published in order, so listeners never see a removal first
+                    synchronized (dayLock(roomId, epochDay)) {
+                        indexDay(reservation);
+                        listeners.forEach(listener -> listener.reservationAdded(reservation));
+                    }
+                }
+            } finally {
+                lock.unlockRead(stamp);
+            }
 
-        for (Reservation existing : reservations) {
-            if (existing.overlaps(reservation)) {
-                return false;
+            if (claim == OccupancyGrid.FULL) {
+                // A new day needs a larger grid, which can only grow under the write lock
+                stamp = lock.writeLock();
+                try {
+                    claim = OccupancyGrid.CONFLICT;
+                    if (isFree(room, date, reservation.getStartTime(), reservation.getEndTime(), null)) {
+                        index(reservation);
+                        listeners.forEach(listener -> listener.reservationAdded(reservation));
+                        claim = OccupancyGrid.CLAIMED;
+                    }
+                } finally {
+                    lock.unlockWrite(stamp);
+                }
             }
+        } finally {
+            unpin(pinned, date, date);
         }
+        (claim == OccupancyGrid.CLAIMED ? addAccepted : rejectedConflict).increment();
+        addLatency.recordSince(start);
+        return claim == OccupancyGrid.CLAIMED;
+    }
 
-        return reservations.add(reservation);
+    /**
+     * Updates an existing reservation, keeping the indexes consistent.
+     * The reservation is replaced by a new instance rather than mutated, so
+     * snapshots already handed to other threads stay consistent.
+     * The room of a reservation cannot be changed. Updating an occurrence of
+     * a series cancels that occurrence and adds the updated single reservation.
+     *
+     * @param reservation the reservation to update
+     * @param date the new date
+     * @param startTime the new start time
+     * @param endTime the new end time
+     * @param reservedBy the new name of the person who reserved the room
+     * @param type the new reservation type
+     * @return the updated reservation, or null if the update was rejected
+     */
+    public Reservation updateReservation(Reservation reservation, LocalDate date, LocalTime startTime,
+                                         LocalTime endTime, String reservedBy, ReservationType type) {
+        if (!isValidSlot(reservation.getRoom(), startTime, endTime)) {
+            return null;
+        }
+        ReservationStore pinned = pin(date, date);
+        long stamp = lock.writeLock();
+        try {
+            if (!isFree(reservation.getRoom(), date, startTime, endTime, reservation)) {
+                return null;
+            }
+            Reservation updated = new Reservation(reservation.getRoom(), date, startTime, endTime, reservedBy, type);
+            if (unindex(reservation)) {
+                index(updated);
+                listeners.forEach(listener -> listener.reservationUpdated(reservation, updated));
+                return updated;
+            }
+            // Editing one occurrence of a series detaches it as a single reservation
+            ReservationSeries series = findSeries(reservation);
+            if (series == null) {
+                return null;
+            }
+            ReservationSeries remaining = series.withException(reservation.getDate());
+            unindexSeries(series);
+            indexSeries(remaining);
+            index(updated);
+            listeners.forEach(listener -> {
+                listener.seriesUpdated(series, remaining);
+                listener.reservationAdded(updated);
+            });
+            return updated;
+        } finally {
+            lock.unlockWrite(stamp);
+            unpin(pinned, date, date);
+        }
     }
 
     /**
      * Removes a reservation.
+     * A single reservation is removed under the shared lock and its slots are
+     * freed with a compare-and-set. Removing an occurrence of a series adds
+     * its date to the series' exceptions.
      *
      * @param reservation the reservation to remove
      * @return true if the reservation was removed, false otherwise
      */
     public boolean removeReservation(Reservation reservation) {
-        return reservations.remove(reservation);
+        long start = System.nanoTime();
+        boolean found = false;
+        long stamp = lock.readLock();
+        try {
+            int roomId = reservation.getRoom() == null ? -1 : getRoomId(reservation.getRoom());
+            if (roomId >= 0) {
+                long epochDay = reservation.getEpochDay();
+                synchronized (dayLock(roomId, epochDay)) {
+                    List<Reservation> remaining = unindexDay(reservation);
+                    if (remaining != null) {
+                        // Loaded files may contain overlaps, keep the slots other reservations still use
+                        int mask = OccupancyGrid.slotMask(reservation.getStartHour(), reservation.getEndHour());
+                        occupancy.release(roomId, epochDay, mask & ~occupiedSlots(remaining));
+                        listeners.forEach(listener -> listener.reservationRemoved(reservation));
+                        found = true;
+                    }
+                }
+            }
+        } finally {
+            lock.unlockRead(stamp);
+        }
+
+        if (!found) {
+            stamp = lock.writeLock();
+            try {
+                ReservationSeries series = findSeries(reservation);
+                if (series != null) {
+                    ReservationSeries remaining = series.withException(reservation.getDate());
+                    unindexSeries(series);
+                    indexSeries(remaining);
+                    listeners.forEach(listener -> listener.seriesUpdated(series, remaining));
+                    found = true;
+                }
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+        (found ? removed : removeNotFound).increment();
+        removeLatency.recordSince(start);
+        return found;
+    }
+
+    /**
+     * Adds a reservation series.
+     * The series is checked arithmetically against the other series of the
+     * room and against the occupancy grid on each of its occurrence dates.
+     * Only the dates held in memory are checked; with a
+     * {@link ReservationStore} attached, the series gives way to the stored
+     * reservations of other months as they are loaded.
+     *
+     * @param series the series to add
+     * @return true if the series was added, false otherwise
+     */
+    public boolean addSeries(ReservationSeries series) {
+        if (series.getFirstDate().isAfter(series.getLastDate())
+                || !isValidSlot(series.getRoom(), series.getStartTime(), series.getEndTime())) {
+            return false;
+        }
+        long stamp = lock.writeLock();
+        try {
+            if (!isSeriesFree(series, null)) {
+                return false;
+            }
+            indexSeries(series);
+            listeners.forEach(listener -> listener.seriesAdded(series));
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Replaces a reservation series by another one in the same room.
+     *
+     * @param previous the series to replace
+     * @param updated the new series
+     * @return true if the series was replaced, false otherwise
+     */
+    public boolean updateSeries(ReservationSeries previous, ReservationSeries updated) {
+        if (previous.getRoom() != updated.getRoom()
+                || updated.getFirstDate().isAfter(updated.getLastDate())
+                || !isValidSlot(updated.getRoom(), updated.getStartTime(), updated.getEndTime())) {
+            return false;
+        }
+        long stamp = lock.writeLock();
+        try {
+            if (!seriesByRoom.getOrDefault(previous.getRoom(), List.of()).contains(previous)
+                    || !isSeriesFree(updated, previous)) {
+                return false;
+            }
+            unindexSeries(previous);
+            indexSeries(updated);
+            listeners.forEach(listener -> listener.seriesUpdated(previous, updated));
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Removes a reservation series with all its occurrences.
+     *
+     * @param series the series to remove
+     * @return true if the series was removed, false otherwise
+     */
+    public boolean removeSeries(ReservationSeries series) {
+        long stamp = lock.writeLock();
+        try {
+            if (!unindexSeries(series)) {
+                return false;
+            }
+            listeners.forEach(listener -> listener.seriesRemoved(series));
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Gets a consistent snapshot of all reservation series.
+     *
+     * @return an unmodifiable list of all series
+     */
+    public List<ReservationSeries> getAllSeries() {
+        long stamp = lock.readLock();
+        try {
+            List<ReservationSeries> result = new ArrayList<>();
+            seriesByRoom.values().forEach(result::addAll);
+            return Collections.unmodifiableList(result);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Checks whether a time range is free for a room on a date.
+     *
+     * @param room the room
+     * @param date the date
+     * @param startTime the start time
+     * @param endTime the end time
+     * @param excluded a reservation to ignore (e.g. the one being edited), or null
+     * @return true if no other reservation overlaps the range, false otherwise
+     */
+    public boolean isRangeFree(Room room, LocalDate date, LocalTime startTime, LocalTime endTime, Reservation excluded) {
+        ensureLoaded(date, date);
+        long stamp = lock.readLock();
+        try {
+            return isFree(room, date, startTime, endTime, excluded);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Finds free slots matching the given requirements, using the occupancy grid.
+     * Results are ranked by date, then start time, then by the smallest room that
+     * fits, then by room name.
+     *
+     * @param minCapacity the minimum room capacity
+     * @param requiredFeatures the features the room must offer, may be empty
+     * @param roomType the required room type, or null for any type
+     * @param durationHours the duration of the reservation in hours
+     * @param from the first date to search
+     * @param to the last date to search (inclusive)
+     * @param maxResults the maximum number of slots to return
+     * @return the ranked list of available slots
+     */
+    public List<AvailableSlot> findAvailable(int minCapacity, Set<RoomFeature> requiredFeatures, RoomType roomType,
+                                             int durationHours, LocalDate from, LocalDate to, int maxResults) {
+        List<Room> candidates = findRooms(minCapacity, requiredFeatures, roomType).stream()
+            .filter(room -> room.isValidReservationDuration(durationHours))
+            .toList();
+        int[] candidateIds = candidates.stream().mapToInt(this::getRoomId).toArray();
+        int lastStartHour = CLOSING_TIME.getHour() - durationHours;
+        ensureLoaded(from, to);
+
+        List<AvailableSlot> result = new ArrayList<>();
+        for (LocalDate date = from; !date.isAfter(to) && result.size() < maxResults; date = date.plusDays(1)) {
+            long epochDay = date.toEpochDay();
+            int[] occupied = new int[candidateIds.length];
+            long stamp = lock.readLock();
+            try {
+                for (int i = 0; i < candidateIds.length; i++) {
+                    occupied[i] = occupancy.get(candidateIds[i], epochDay) | seriesSlots(candidates.get(i), date, null);
+                }
+            } finally {
+                lock.unlockRead(stamp);
+            }
+            for (int hour = OPENING_TIME.getHour(); hour <= lastStartHour && result.size() < maxResults; hour++) {
+                int mask = OccupancyGrid.slotMask(hour, hour + durationHours);
+                for (int i = 0; i < candidateIds.length && result.size() < maxResults; i++) {
+                    if ((occupied[i] & mask) == 0) {
+                        result.add(new AvailableSlot(candidates.get(i), date,
+                            LocalTime.of(hour, 0), LocalTime.of(hour + durationHours, 0)));
+                    }
+                }
+            }
+        }
+        return result;
     }
 
     /**
-     * Gets reservations for a specific date.
+     * Gets reservations for a specific date, including the occurrences of series.
      *
      * @param date the date
      * @return a list of reservations for the date
      */
     public List<Reservation> getReservationsForDate(LocalDate date) {
-        return reservations.stream()
-                          .filter(r -> r.getDate().equals(date))
-                          .toList();
+        long start = System.nanoTime();
+        List<Reservation> dayReservations = dateIndex.getOrDefault(date, List.of());
+        List<Reservation> result = null;
+        for (ReservationSeries series : seriesByDay.getOrDefault(date.getDayOfWeek(), List.of())) {
+            Reservation occurrence = series.getOccurrence(date);
+            if (occurrence != null) {
+                if (result == null) {
+                    result = new ArrayList<>(dayReservations);
+                }
+                result.add(occurrence);
+            }
+        }
+        dateQueryLatency.recordSince(start);
+        return result == null ? dayReservations : Collections.unmodifiableList(result);
     }
 
     /**
-     * Gets reservations for a specific room.
+     * Gets reservations for a specific room, including the occurrences of series.
      *
      * @param room the room
      * @return a list of reservations for the room
      */
     public List<Reservation> getReservationsForRoom(Room room) {
-        return reservations.stream()
-                          .filter(r -> r.getRoom().equals(room))
-                          .toList();
+        long stamp = lock.readLock();
+        try {
+            NavigableMap<LocalDate, List<Reservation>> roomDays = roomIndex.get(room);
+            List<ReservationSeries> roomSeries = seriesByRoom.getOrDefault(room, List.of());
+            if (roomDays == null && roomSeries.isEmpty()) {
+                return List.of();
+            }
+            List<Reservation> result = new ArrayList<>();
+            if (roomDays != null) {
+                roomDays.values().forEach(result::addAll);
+            }
+            if (!roomSeries.isEmpty()) {
+                roomSeries.forEach(series -> series.getOccurrences().forEach(result::add));
+                result.sort(Comparator.comparing(Reservation::getDate).thenComparing(BY_START_TIME));
+            }
+            return Collections.unmodifiableList(result);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Gets the single reservations of a date range held in memory, without
+     * series occurrences.
+     *
+     * @param from the first date
+     * @param to the last date, inclusive
+     * @return the reservations, sorted by date
+     */
+    public List<Reservation> getReservationsBetween(LocalDate from, LocalDate to) {
+        List<Reservation> result = new ArrayList<>();
+        dateIndex.subMap(from, true, to, true).values().forEach(result::addAll);
+        return result;
+    }
+
+    /**
+     * Drops the single reservations of a date range from memory, after the
+     * attached store has saved them. Listeners are told through
+     * {@link ReservationListener#reservationsEvicted}, as the reservations
+     * still exist.
+     * <p>
+     * The condition is checked under the write lock, so no change can slip
+     * in between a successful check and the eviction; a store uses it to
+     * make sure nothing changed since it saved the range.
+     *
+     * @param from the first date
+     * @param to the last date, inclusive
+     * @param saved checked before evicting; nothing is evicted unless it returns true
+     * @return the evicted reservations, or null if the condition did not hold
+     */
+    public List<Reservation> evictReservations(LocalDate from, LocalDate to, BooleanSupplier saved) {
+        long stamp = lock.writeLock();
+        try {
+            if (!saved.getAsBoolean()) {
+                return null;
+            }
+            NavigableMap<LocalDate, List<Reservation>> days = dateIndex.subMap(from, true, to, true);
+            List<Reservation> evicted = new ArrayList<>();
+            days.values().forEach(evicted::addAll);
+            if (evicted.isEmpty()) {
+                return evicted;
+            }
+            for (Reservation reservation : evicted) {
+                NavigableMap<LocalDate, List<Reservation>> roomDays = roomIndex.get(reservation.getRoom());
+                if (roomDays != null && roomDays.remove(reservation.getDate()) != null && roomDays.isEmpty()) {
+                    roomIndex.remove(reservation.getRoom());
+                }
+                occupancy.remove(getRoomId(reservation.getRoom()), reservation.getEpochDay());
+            }
+            days.clear();
+            reservationCount.add(-evicted.size());
+            generation.increment();
+            List<Reservation> view = Collections.unmodifiableList(evicted);
+            listeners.forEach(listener -> listener.reservationsEvicted(view));
+            return evicted;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
     }
 
     /**
-     * Gets all reservations.
+     * Gets a consistent snapshot of all single reservations, ordered by date.
+     * The copy is taken under a short read lock, so callers may iterate it
+     * for as long as they like without holding up writers. Series are not
+     * expanded; they are returned by {@link #getAllSeries()}.
      *
      * @return an unmodifiable list of all reservations
      */
     public List<Reservation> getAllReservations() {
-        return Collections.unmodifiableList(reservations);
+        long stamp = lock.readLock();
+        try {
+            List<Reservation> result = new ArrayList<>(reservationCount.intValue());
+            dateIndex.values().forEach(result::addAll);
+            return Collections.unmodifiableList(result);
+        } finally {
+            lock.unlockRead(stamp);
+        }
     }
 
     /**
-     * Loads reservations from a list.
+     * Loads reservations from a list, replacing all reservations and series.
+     * Reservations whose room is unknown are skipped.
      *
      * @param reservations the list of reservations to load
      */
     public void loadReservations(List<Reservation> reservations) {
-        this.reservations.clear();
-        this.reservations.addAll(reservations);
+        long stamp = lock.writeLock();
+        try {
+            roomIndex.clear();
+            dateIndex.clear();
+            seriesByRoom.clear();
+            seriesByDay.clear();
+            occupancy.clear();
+            reservationCount.reset();
+            List<Reservation> loaded = bulkIndex(reservations);
+            List<Reservation> view = Collections.unmodifiableList(loaded);
+            listeners.forEach(listener -> listener.reservationsLoaded(view));
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Appends a batch of reservations without validating them, as when
+     * streaming a file into the manager. Existing reservations are kept.
+     * Reservations whose room is unknown are skipped. A series overlapping an
+     * appended reservation skips that date, since the series may have been
+     * added while the reservation's month was not loaded.
+     *
+     * @param reservations the batch of reservations to append
+     */
+    public void appendReservations(List<Reservation> reservations) {
+        appendReservations(reservations, null);
+    }
+
+    /**
+     * Appends a batch of reservations read from a file, like
+     * {@link #appendReservations(List)}. Listeners are told the file, so the
+     * journal can refer to it instead of recording every reservation.
+     *
+     * @param reservations the batch of reservations to append
+     * @param source the file the reservations were read from, or null if they were not read from a file
+     */
+    public void appendReservations(List<Reservation> reservations, String source) {
+        long stamp = lock.writeLock();
+        try {
+            List<Reservation> appended = Collections.unmodifiableList(bulkIndex(reservations));
+            List<ReservationSeries> replaced = yieldSeries(appended);
+            listeners.forEach(listener -> {
+                listener.reservationsAppended(appended, source);
+                for (int i = 0; i < replaced.size(); i += 2) {
+                    listener.seriesUpdated(replaced.get(i), replaced.get(i + 1));
+                }
+            });
+        } finally {
+            lock.unlockWrite(stamp);
+        }
     }
 
     /**
      * Loads reservations from a file.
+     * Existing reservations are cleared and the file is streamed into the
+     * manager in batches; the write lock is only held while a batch is indexed.
+     * The series stored in the file are then added one by one.
      *
      * @param filename the name of the file
      */
     public void loadReservations(String filename) {
         FileManager fileManager = new FileManager();
         try {
-            List<Reservation> loadedReservations = fileManager.loadReservations(filename, this);
-            reservations.clear();
-            reservations.addAll(loadedReservations);
+            loadReservations(List.of());
+            fileManager.streamReservations(filename, this, LOAD_BATCH_SIZE, batch -> appendReservations(batch, filename));
+            fileManager.loadSeries(filename, this).forEach(this::addSeries);
         } catch (Exception e) {
             e.printStackTrace();
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Checks the occupancy grid for a time range. Callers must hold the lock.
+     *
+     * @param room the room
+     * @param date the date
+     * @param startTime the start time
+     * @param endTime the end time
+     * @param excluded a reservation to ignore, or null
+     * @return true if no other reservation overlaps the range, false otherwise
+     */
+    private boolean isFree(Room room, LocalDate date, LocalTime startTime, LocalTime endTime, Reservation excluded) {
+        int roomId = getRoomId(room);
+        if (roomId < 0) {
+            return true;
+        }
+        int occupied = occupancy.get(roomId, date.toEpochDay()) | seriesSlots(room, date, excluded);
+        if (excluded != null && excluded.getRoom() == room && date.toEpochDay() == excluded.getEpochDay()) {
+            occupied &= ~OccupancyGrid.slotMask(excluded.getStartHour(), excluded.getEndHour());
+        }
+        return (occupied & OccupancyGrid.slotMask(startTime, endTime)) == 0;
+    }
+
+    /**
+     * Computes the slots booked in a room on a date by series. Callers must hold the lock.
+     *
+     * @param room the room
+     * @param date the date
+     * @param excluded an occurrence to ignore on its own date, or null
+     * @return the union of the slot masks of the occurring series
+     */
+    private int seriesSlots(Room room, LocalDate date, Reservation excluded) {
+        // Moving an occurrence to another date of its series must still see the series there
+        boolean excludedToday = excluded != null && date.toEpochDay() == excluded.getEpochDay();
+        int mask = 0;
+        for (ReservationSeries series : seriesByRoom.getOrDefault(room, List.of())) {
+            if (series.occursOn(date) && !(excludedToday && series.isOccurrence(excluded))) {
+                mask |= OccupancyGrid.slotMask(series.getStartTime(), series.getEndTime());
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Checks that a series overlaps neither another series of its room nor a
+     * single reservation. Callers must hold the lock.
+     *
+     * @param series the series
+     * @param excluded a series to ignore (e.g. the one being replaced), or null
+     * @return true if the series can be booked, false otherwise
+     */
+    private boolean isSeriesFree(ReservationSeries series, ReservationSeries excluded) {
+        for (ReservationSeries other : seriesByRoom.getOrDefault(series.getRoom(), List.of())) {
+            if (!other.equals(excluded) && other.conflictsWith(series)) {
+                return false;
+            }
+        }
+        int roomId = getRoomId(series.getRoom());
+        int mask = OccupancyGrid.slotMask(series.getStartTime(), series.getEndTime());
+        return series.getOccurrenceDates().allMatch(date -> (occupancy.get(roomId, date.toEpochDay()) & mask) == 0);
+    }
+
+    /**
+     * Adds an exception to every series overlapping one of the given
+     * reservations on its date. Callers must hold the write lock.
+     *
+     * @param reservations the reservations that keep their slots
+     * @return the replaced series, each followed by its replacement
+     */
+    private List<ReservationSeries> yieldSeries(List<Reservation> reservations) {
+        List<ReservationSeries> replaced = new ArrayList<>();
+        if (seriesByRoom.isEmpty()) {
+            return replaced;
+        }
+        for (Reservation reservation : reservations) {
+            int mask = OccupancyGrid.slotMask(reservation.getStartHour(), reservation.getEndHour());
+            for (ReservationSeries series : seriesByRoom.getOrDefault(reservation.getRoom(), List.of())) {
+                if (series.occursOn(reservation.getDate())
+                        && (OccupancyGrid.slotMask(series.getStartTime(), series.getEndTime()) & mask) != 0) {
+                    ReservationSeries remaining = series.withException(reservation.getDate());
+                    unindexSeries(series);
+                    indexSeries(remaining);
+                    replaced.add(series);
+                    replaced.add(remaining);
+                }
+            }
+        }
+        return replaced;
+    }
+
+    /**
+     * Finds the series a reservation is an occurrence of. Callers must hold the lock.
+     *
+     * @param occurrence the reservation
+     * @return the series, or null if the reservation is not an occurrence
+     */
+    private ReservationSeries findSeries(Reservation occurrence) {
+        if (occurrence.getRoom() == null) {
+            return null;
+        }
+        for (ReservationSeries series : seriesByRoom.getOrDefault(occurrence.getRoom(), List.of())) {
+            if (series.isOccurrence(occurrence)) {
+                return series;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Adds a series to the room and day-of-week indexes. Callers must hold the write lock.
+     *
+     * @param series the series to index
+     */
+    private void indexSeries(ReservationSeries series) {
+        List<ReservationSeries> roomSeries = new ArrayList<>(seriesByRoom.getOrDefault(series.getRoom(), List.of()));
+        roomSeries.add(series);
+        seriesByRoom.put(series.getRoom(), Collections.unmodifiableList(roomSeries));
+        DayOfWeek day = series.getFirstDate().getDayOfWeek();
+        List<ReservationSeries> daySeries = new ArrayList<>(seriesByDay.getOrDefault(day, List.of()));
+        daySeries.add(series);
+        seriesByDay.put(day, Collections.unmodifiableList(daySeries));
+        generation.increment();
+    }
+
+    /**
+     * Removes a series from the room and day-of-week indexes. Callers must hold the write lock.
+     *
+     * @param series the series to remove
+     * @return true if the series was indexed, false otherwise
+     */
+    private boolean unindexSeries(ReservationSeries series) {
+        List<ReservationSeries> roomSeries = new ArrayList<>(seriesByRoom.getOrDefault(series.getRoom(), List.of()));
+        if (!roomSeries.remove(series)) {
+            return false;
+        }
+        if (roomSeries.isEmpty()) {
+            seriesByRoom.remove(series.getRoom());
+        } else {
+            seriesByRoom.put(series.getRoom(), Collections.unmodifiableList(roomSeries));
+        }
+        DayOfWeek day = series.getFirstDate().getDayOfWeek();
+        List<ReservationSeries> daySeries = new ArrayList<>(seriesByDay.get(day));
+        daySeries.remove(series);
+        if (daySeries.isEmpty()) {
+            seriesByDay.remove(day);
+        } else {
+            seriesByDay.put(day, Collections.unmodifiableList(daySeries));
+        }
+        generation.increment();
+        return true;
+    }
+
+    /**
+     * Checks that the room is known and the time range is within business hours and valid for it.
+     *
+     * @param room the room
+     * @param startTime the start time
+     * @param endTime the end time
+     * @return true if the range can be booked, false otherwise
+     */
+    private boolean isValidSlot(Room room, LocalTime startTime, LocalTime endTime) {
+        return checkSlot(room, startTime, endTime) == null;
+    }
+
+    /**
+     * Checks a time range like {@link #isValidSlot}, telling why it is rejected.
+     *
+     * @param room the room
+     * @param startTime the start time
+     * @param endTime the end time
+     * @return the rejection counter of the failed rule, or null if the range can be booked
+     */
+    private Counter checkSlot(Room room, LocalTime startTime, LocalTime endTime) {
+        if (getRoomId(room) < 0) {
+            return rejectedUnknownRoom;
+        }
+        if (startTime.isBefore(OPENING_TIME) || endTime.isAfter(CLOSING_TIME)) {
+            return rejectedOutsideHours;
+        }
+        // Slots are whole hours, so a range off the hour has no valid duration
+        if (!Reservation.isOnTheHour(startTime) || !Reservation.isOnTheHour(endTime)
+                || !room.isValidReservationDuration(endTime.getHour() - startTime.getHour())) {
+            return rejectedInvalidDuration;
+        }
+        return null;
+    }
+
+    /**
+     * Computes the occupied slot mask of a list of reservations.
+     *
+     * @param reservations the reservations
+     * @return the union of their slot masks
+     */
+    private static int occupiedSlots(List<Reservation> reservations) {
+        int mask = 0;
+        for (Reservation reservation : reservations) {
+            mask |= OccupancyGrid.slotMask(reservation.getStartHour(), reservation.getEndHour());
+        }
+        return mask;
+    }
+
+    /**
+     * Publishes a new immutable day list, or removes the day if it became empty.
+     *
+     * @param days the index to update
+     * @param date the date
+     * @param reservations the new reservations of the day
+     */
+    private static void replaceOrRemove(Map<LocalDate, List<Reservation>> days, LocalDate date, List<Reservation> reservations) {
+        if (reservations.isEmpty()) {
+            days.remove(date);
+        } else {
+            days.put(date, Collections.unmodifiableList(reservations));
+        }
+    }
+
+    /**
+     * Indexes many reservations at once, grouping them first so every
+     * touched day list is copied and published only once.
+     * Callers must hold the write lock.
+     *
+     * @param reservations the reservations to index
+     * @return the reservations that were indexed
+     */
+    private List<Reservation> bulkIndex(List<Reservation> reservations) {
+        List<Reservation> indexed = new ArrayList<>(reservations.size());
+        Map<Room, Map<LocalDate, List<Reservation>>> roomDays = new HashMap<>();
+        Map<LocalDate, List<Reservation>> dateReservations = new HashMap<>();
+        for (Reservation reservation : reservations) {
+            if (reservation.getRoom() == null) {
+                continue;
+            }
+            roomDays.computeIfAbsent(reservation.getRoom(), r -> new HashMap<>())
+                .computeIfAbsent(reservation.getDate(), d -> new ArrayList<>())
+                .add(reservation);
+            dateReservations.computeIfAbsent(reservation.getDate(), d -> new ArrayList<>()).add(reservation);
+            indexed.add(reservation);
+        }
+        roomDays.forEach((room, days) -> {
+            int roomId = getRoomId(room);
+            NavigableMap<LocalDate, List<Reservation>> indexedDays =
+                roomIndex.computeIfAbsent(room, r -> new ConcurrentSkipListMap<>());
+            days.forEach((date, added) -> {
+                List<Reservation> day = new ArrayList<>(indexedDays.getOrDefault(date, List.of()));
+                day.addAll(added);
+                day.sort(BY_START_TIME);
+                indexedDays.put(date, Collections.unmodifiableList(day));
+                occupancy.set(roomId, date.toEpochDay(), occupiedSlots(day));
+            });
+        });
+        dateReservations.forEach((date, added) -> {
+            List<Reservation> day = new ArrayList<>(dateIndex.getOrDefault(date, List.of()));
+            day.addAll(added);
+            dateIndex.put(date, Collections.unmodifiableList(day));
+        });
+        reservationCount.add(indexed.size());
+        generation.increment();
+        return indexed;
+    }
+
+    /**
+     * Adds a reservation to the room and date indexes and occupies its slots.
+     * Callers must hold the write lock.
+     *
+     * @param reservation the reservation to index
+     */
+    private void index(Reservation reservation) {
+        occupancy.occupy(getRoomId(reservation.getRoom()), reservation.getEpochDay(),
+            OccupancyGrid.slotMask(reservation.getStartHour(), reservation.getEndHour()));
+        indexDay(reservation);
+    }
+
+    /**
+     * Adds a reservation to the room and date indexes, leaving the occupancy
+     * grid alone. Callers must hold the write lock, or the read lock and the
+     * lock of the reservation's day.
+     *
+     * @param reservation the reservation to index
+     */
+    private void indexDay(Reservation reservation) {
+        NavigableMap<LocalDate, List<Reservation>> roomDays =
+            roomIndex.computeIfAbsent(reservation.getRoom(), r -> new ConcurrentSkipListMap<>());
+        List<Reservation> day = new ArrayList<>(roomDays.getOrDefault(reservation.getDate(), List.of()));
+        int position = Collections.binarySearch(day, reservation, BY_START_TIME);
+        day.add(position < 0 ? -position - 1 : position, reservation);
+        roomDays.put(reservation.getDate(), Collections.unmodifiableList(day));
+        // Other rooms may change the same date concurrently, so the date list is replaced atomically
+        dateIndex.compute(reservation.getDate(), (date, reservations) -> {
+            List<Reservation> dateReservations = new ArrayList<>(reservations == null ? List.of() : reservations);
+            dateReservations.add(reservation);
+            return Collections.unmodifiableList(dateReservations);
+        });
+        reservationCount.increment();
+        generation.increment();
+    }
+
+    /**
+     * Removes a reservation from the room and date indexes and frees its
+     * slots. Callers must hold the write lock.
+     *
+     * @param reservation the reservation to remove
+     * @return true if the reservation was indexed, false otherwise
+     */
+    private boolean unindex(Reservation reservation) {
+        List<Reservation> remaining = unindexDay(reservation);
+        if (remaining == null) {
+            return false;
+        }
+        // Recompute from the remaining reservations, loaded files may contain overlaps
+        occupancy.set(getRoomId(reservation.getRoom()), reservation.getEpochDay(), occupiedSlots(remaining));
+        return true;
+    }
+
+    /**
+     * Removes a reservation from the room and date indexes, leaving the
+     * occupancy grid alone. Callers must hold the write lock, or the read
+     * lock and the lock of the reservation's day.
+     *
+     * @param reservation the reservation to remove
+     * @return the reservations left in the room on that day, or null if the reservation was not indexed
+     */
+    private List<Reservation> unindexDay(Reservation reservation) {
+        if (reservation.getRoom() == null) {
+            return null;
+        }
+        NavigableMap<LocalDate, List<Reservation>> roomDays = roomIndex.get(reservation.getRoom());
+        List<Reservation> indexed = roomDays == null ? null : roomDays.get(reservation.getDate());
+        if (indexed == null) {
+            return null;
+        }
+        List<Reservation> day = new ArrayList<>(indexed);
+        if (!day.remove(reservation)) {
+            return null;
+        }
+        replaceOrRemove(roomDays, reservation.getDate(), day);
+        dateIndex.computeIfPresent(reservation.getDate(), (date, reservations) -> {
+            List<Reservation> dateReservations = new ArrayList<>(reservations);
+            dateReservations.remove(reservation);
+            return dateReservations.isEmpty() ? null : Collections.unmodifiableList(dateReservations);
+        });
+        reservationCount.decrement();
+        generation.increment();
+        return day;
+    }
+
+    /**
+     * Gets the lock that orders the changes to a room on a day.
+     *
+     * @param roomId the room id
+     * @param epochDay the day
+     * @return the lock of the stripe the day falls in
+     */
+    private Object dayLock(int roomId, long epochDay) {
+        int hash = roomId * 31 + Long.hashCode(epochDay);
+        return dayLocks[(hash ^ (hash >>> 16)) & (DAY_LOCKS - 1)];
+    }
+}
@@ -0,0 +1,48 @@
+package controllers;
+
+import java.io.IOException;
+import java.time.LocalDate;
+
+/**
+ * Backing storage from which a {@link ReservationManager} holds only part of
+ * the reservations in memory, e.g. the months around the viewed date.
+ * <p>
+ * The manager asks the store to load the dates it is about to read or check
+ * for conflicts. Calls are made without holding the manager's lock, so the
+ * store may add the loaded reservations to the manager.
+ */
+public interface ReservationStore {
+    /**
+     * Makes sure the reservations of a date range are held by the manager.
+     *
+     * @param from the first date
+     * @param to the last date, inclusive
+     */
+    void ensureLoaded(LocalDate from, LocalDate to);
+
+    /**
+     * Makes sure the reservations of a date range are held by the manager and
+     * keeps them held until {@link #unpin} is called with the same range, so
+     * that a conflict check and the change it allows see the same reservations.
+     * Pins of overlapping ranges nest.
+     *
+     * @param from the first date
+     * @param to the last date, inclusive
+     */
+    void pin(LocalDate from, LocalDate to);
+
+    /**
+     * Releases a date range pinned by {@link #pin}.
+     *
+     * @param from the first date
+     * @param to the last date, inclusive
+     */
+    void unpin(LocalDate from, LocalDate to);
+
+    /**
+     * Writes every change not yet stored.
+     *
+     * @throws IOException if the changes cannot be written
+     */
+    void flush() throws IOException;
+}
@@ -0,0 +1,89 @@
+package controllers;
+
+import models.room.Room;
+import models.room.RoomType;
+
+import java.util.*;
+
+/**
+ * Immutable secondary indexes over a set of rooms: by name, by capacity and
+ * by feature bitmask. A new index is built whenever rooms are added.
+ */
+public class RoomIndex {
+    private static final Comparator<Room> BY_CAPACITY =
+        Comparator.comparingInt(Room::getCapacity).thenComparing(Room::getName);
+
+    private final List<Room> byName;
+    private final Room[] byCapacity;
+    private final int[] capacities;
+    private final int[] featureMasks;
+
+    /**
+     * Constructs a RoomIndex over the given rooms.
+     *
+     * @param rooms the rooms to index
+     */
+    public RoomIndex(Collection<Room> rooms) {
+        List<Room> names = new ArrayList<>(rooms);
+        names.sort(Comparator.comparing(Room::getName));
+        this.byName = Collections.unmodifiableList(names);
+
+        this.byCapacity = rooms.toArray(new Room[0]);
+        Arrays.sort(byCapacity, BY_CAPACITY);
+        this.capacities = new int[byCapacity.length];
+        this.featureMasks = new int[byCapacity.length];
+        for (int i = 0; i < byCapacity.length; i++) {
+            capacities[i] = byCapacity[i].getCapacity();
+            featureMasks[i] = byCapacity[i].getFeatureMask();
+        }
+    }
+
+    /**
+     * Gets the rooms sorted by name.
+     *
+     * @return an unmodifiable list of the rooms
+     */
+    public List<Room> getRoomsByName() {
+        return byName;
+    }
+
+    /**
+     * Finds the rooms matching the given requirements.
+     * Only rooms at or above the minimum capacity are visited.
+     *
+     * @param minCapacity the minimum capacity
+     * @param featureMask the required features, as a {@link models.room.RoomFeature} mask
+     * @param roomType the required room type, or null for any type
+     * @return the matching rooms, sorted by capacity then name
+     */
+    public List<Room> find(int minCapacity, int featureMask, RoomType roomType) {
+        List<Room> result = new ArrayList<>();
+        for (int i = lowerBound(minCapacity); i < byCapacity.length; i++) {
+            if ((featureMasks[i] & featureMask) == featureMask
+                    && (roomType == null || byCapacity[i].getType() == roomType)) {
+                result.add(byCapacity[i]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Finds the first position whose capacity is at least the given value.
+     *
+     * @param minCapacity the minimum capacity
+     * @return the position in the capacity-sorted arrays
+     */
+    private int lowerBound(int minCapacity) {
+        int low = 0;
+        int high = capacities.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (capacities[mid] < minCapacity) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,28 @@
+package controllers;
+
+import models.room.Room;
+
+import java.util.Collection;
+
+/**
+ * Listener notified of room changes in a {@link ReservationManager}.
+ * <p>
+ * Like {@link ReservationListener}, notifications are delivered on the thread
+ * that made the change, while the manager's write lock is held.
+ * Implementations must be quick and must not call back into the manager.
+ */
+public interface RoomListener {
+    /**
+     * Called after rooms have been added.
+     *
+     * @param rooms the added rooms
+     */
+    void roomsAdded(Collection<Room> rooms);
+
+    /**
+     * Called after a room has been removed.
+     *
+     * @param room the removed room
+     */
+    void roomRemoved(Room room);
+}
@@ -0,0 +1,508 @@
+package controllers;
+
+import models.reservation.Reservation;
+import models.reservation.ReservationSeries;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Reservation storage partitioned by month.
+ * <p>
+ * A store is a directory holding one binary shard per month
+ * ({@code 2026-03.resv}), the reservation series ({@code series.resv}) and a
+ * manifest listing the stored months with their record counts. Series are
+ * few and always held in memory; the single reservations of a month are
+ * only loaded when the manager asks for one of its dates. A series is only
+ * checked against the months held when it is added, and skips the dates
+ * where it overlaps a reservation of a month loaded later.
+ * <p>
+ * When more reservations than the memory budget are held, the least recently
+ * used months outside the requested range are written back, if changed, and
+ * evicted. Months pinned by a booking in progress are never evicted, and a
+ * month changed again after being written back stays in memory. Changes are
+ * tracked per month through the listener and written back one minute after
+ * a burst of changes, on eviction and on close.
+ */
+public class ShardedReservationStore implements ReservationStore, ReservationListener {
+    private static final String MANIFEST_FILE = "manifest.txt";
+    private static final String MANIFEST_HEADER = "# RoomManager shard manifest v1";
+    private static final String SERIES_FILE = "series.resv";
+    private static final String SHARD_EXTENSION = ".resv";
+    private static final int FLUSH_DELAY_MINUTES = 1;
+    private static final int IMPORT_BATCH_SIZE = 10_000;
+
+    /** Default memory budget, in single reservations held by the manager. */
+    public static final int DEFAULT_MEMORY_BUDGET = 1_000_000;
+
+    private final Path directory;
+    private final ReservationManager manager;
+    private final FileManager fileManager;
+    private final int memoryBudget;
+    private final NavigableMap<YearMonth, Integer> manifest;
+    private final LinkedHashMap<YearMonth, Boolean> resident;
+    private final Set<YearMonth> residentMonths;
+    private final Map<YearMonth, Integer> pins;
+    private final Set<YearMonth> dirty;
+    private final ScheduledThreadPoolExecutor scheduler;
+    private final AtomicBoolean flushScheduled;
+    private volatile boolean seriesDirty;
+    private volatile Thread loadingThread;
+
+    /**
+     * Constructs a ShardedReservationStore.
+     *
+     * @param directory the store directory, created if missing
+     * @param manager the reservation manager
+     * @param fileManager the file manager used to read and write shards
+     * @param memoryBudget the number of single reservations above which cold months are evicted
+     */
+    public ShardedReservationStore(Path directory, ReservationManager manager, FileManager fileManager, int memoryBudget) {
+        this.directory = directory;
+        this.manager = manager;
+        this.fileManager = fileManager;
+        this.memoryBudget = memoryBudget;
+        this.manifest = new ConcurrentSkipListMap<>();
+        this.resident = new LinkedHashMap<>(16, 0.75f, true);
+        this.residentMonths = ConcurrentHashMap.newKeySet();
+        this.pins = new HashMap<>();
+        this.dirty = ConcurrentHashMap.newKeySet();
+        this.scheduler = new ScheduledThreadPoolExecutor(1);
+        this.scheduler.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        this.flushScheduled = new AtomicBoolean();
+    }
+
+    /**
+     * Opens the store: reads the manifest and the series, then attaches the
+     * store to the manager. No reservation is loaded until a date is asked for.
+     *
+     * @throws IOException if the store directory cannot be read
+     */
+    public void open() throws IOException {
+        Files.createDirectories(directory);
+        readManifest();
+        Path seriesFile = directory.resolve(SERIES_FILE);
+        if (Files.exists(seriesFile)) {
+            // Added before the listener is registered, so they are not marked as changed
+            fileManager.loadSeries(seriesFile.toString(), manager).forEach(manager::addSeries);
+        }
+        manager.addReservationListener(this);
+        manager.setReservationStore(this);
+    }
+
+    /**
+     * Splits a single reservation file into the month shards of this store.
+     * The store must be empty and not open.
+     *
+     * @param filename the reservation file to import
+     * @return the number of imported reservations
+     * @throws IOException if the file cannot be read or the shards cannot be written
+     */
+    public int importFile(String filename) throws IOException {
+        Files.createDirectories(directory);
+        readManifest();
+        if (!manifest.isEmpty()) {
+            throw new IOException("Store " + directory + " is not empty");
+        }
+        Map<YearMonth, List<Reservation>> months = new TreeMap<>();
+        fileManager.streamReservations(filename, manager, IMPORT_BATCH_SIZE, batch -> {
+            for (Reservation reservation : batch) {
+                if (reservation.getRoom() != null) {
+                    months.computeIfAbsent(YearMonth.from(reservation.getDate()), m -> new ArrayList<>()).add(reservation);
+                }
+            }
+        });
+        int imported = 0;
+        for (Map.Entry<YearMonth, List<Reservation>> month : months.entrySet()) {
+            writeShard(month.getKey(), month.getValue());
+            imported += month.getValue().size();
+        }
+        List<ReservationSeries> series = fileManager.loadSeries(filename, manager);
+        if (!series.isEmpty()) {
+            writeSeries(series);
+        }
+        writeManifest();
+        return imported;
+    }
+
+    /**
+     * Loads the month shards covering a date range that are not held yet,
+     * then evicts cold months if the memory budget is exceeded. Months of
+     * the range are never evicted by the same call.
+     *
+     * @param from the first date
+     * @param to the last date, inclusive
+     */
+    @Override
+    public synchronized void ensureLoaded(LocalDate from, LocalDate to) {
+        YearMonth first = YearMonth.from(from);
+        YearMonth last = YearMonth.from(to);
+        for (YearMonth month = first; !month.isAfter(last); month = month.plusMonths(1)) {
+            if (resident.get(month) == null) {
+                load(month);
+            }
+        }
+        evict(first, last);
+    }
+
+    /**
+     * Loads the month shards covering a date range like {@link #ensureLoaded}
+     * and keeps those months from being evicted until they are unpinned.
+     *
+     * @param from the first date
+     * @param to the last date, inclusive
+     */
+    @Override
+    public synchronized void pin(LocalDate from, LocalDate to) {
+        YearMonth last = YearMonth.from(to);
+        for (YearMonth month = YearMonth.from(from); !month.isAfter(last); month = month.plusMonths(1)) {
+            pins.merge(month, 1, Integer::sum);
+        }
+        ensureLoaded(from, to);
+    }
+
+    /**
+     * Releases the months of a date range pinned by {@link #pin}.
+     *
+     * @param from the first date
+     * @param to the last date, inclusive
+     */
+    @Override
+    public synchronized void unpin(LocalDate from, LocalDate to) {
+        YearMonth last = YearMonth.from(to);
+        for (YearMonth month = YearMonth.from(from); !month.isAfter(last); month = month.plusMonths(1)) {
+            pins.computeIfPresent(month, (m, count) -> count > 1 ? count - 1 : null);
+        }
+    }
+
+    /**
+     * Writes every changed month and the series if they changed, then the manifest.
+     *
+     * @throws IOException if a shard or the manifest cannot be written
+     */
+    @Override
+    public synchronized void flush() throws IOException {
+        boolean changed = false;
+        for (YearMonth month : new TreeSet<>(dirty)) {
+            if (resident.get(month) == null) {
+                // Changed without being loaded first, merge with what is stored
+                load(month);
+            }
+            flushMonth(month);
+            changed = true;
+        }
+        if (seriesDirty) {
+            seriesDirty = false;
+            try {
+                writeSeries(manager.getAllSeries());
+            } catch (IOException e) {
+                seriesDirty = true;
+                throw e;
+            }
+        }
+        if (changed) {
+            writeManifest();
+        }
+    }
+
+    /**
+     * Gets the months currently held in memory.
+     *
+     * @return the resident months, least recently used first
+     */
+    public synchronized List<YearMonth> getResidentMonths() {
+        return new ArrayList<>(resident.keySet());
+    }
+
+    /**
+     * Gets the months stored in this store.
+     *
+     * @return an unmodifiable view of the stored months and their record counts
+     */
+    public NavigableMap<YearMonth, Integer> getManifest() {
+        return Collections.unmodifiableNavigableMap(manifest);
+    }
+
+    /**
+     * Writes back pending changes and detaches the store from the manager.
+     */
+    public void close() {
+        scheduler.shutdownNow();
+        try {
+            flush();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        manager.removeReservationListener(this);
+        manager.setReservationStore(null);
+    }
+
+    /**
+     * Loads the shard of a month into the manager, if it is stored, and marks the month resident.
+     * Callers must hold the store's lock.
+     *
+     * @param month the month
+     */
+    private void load(YearMonth month) {
+        if (manifest.containsKey(month)) {
+            List<Reservation> shard = fileManager.loadReservations(shardFile(month).toString(), manager);
+            loadingThread = Thread.currentThread();
+            try {
+                manager.appendReservations(shard, shardFile(month).toString());
+            } finally {
+                loadingThread = null;
+            }
+        }
+        resident.put(month, Boolean.TRUE);
+        residentMonths.add(month);
+    }
+
+    /**
+     * Evicts the least recently used months while the memory budget is exceeded.
+     * Pinned months are skipped. A month is only dropped if it is still clean
+     * under the manager's write lock, so a change made after it was written
+     * back is never lost. Callers must hold the store's lock.
+     *
+     * @param first the first month that must stay resident
+     * @param last the last month that must stay resident
+     */
+    private void evict(YearMonth first, YearMonth last) {
+        Iterator<YearMonth> months = resident.keySet().iterator();
+        boolean flushed = false;
+        while (manager.getReservationCount() > memoryBudget && months.hasNext()) {
+            YearMonth month = months.next();
+            if ((!month.isBefore(first) && !month.isAfter(last)) || pins.containsKey(month)) {
+                continue;
+            }
+            if (dirty.contains(month)) {
+                try {
+                    flushMonth(month);
+                    flushed = true;
+                } catch (IOException e) {
+                    e.printStackTrace();
+                    continue; // Keep the month in memory rather than lose its changes
+                }
+            }
+            if (manager.evictReservations(month.atDay(1), month.atEndOfMonth(), () -> !dirty.contains(month)) == null) {
+                continue; // Changed again since it was written, keep it until the next flush
+            }
+            months.remove();
+            residentMonths.remove(month);
+        }
+        if (flushed) {
+            try {
+                writeManifest();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Writes the resident reservations of a month to its shard.
+     * Callers must hold the store's lock.
+     *
+     * @param month the month
+     * @throws IOException if the shard cannot be written
+     */
+    private void flushMonth(YearMonth month) throws IOException {
+        // Cleared first, so a change made while writing marks the month again
+        dirty.remove(month);
+        List<Reservation> reservations = manager.getReservationsBetween(month.atDay(1), month.atEndOfMonth());
+        try {
+            writeShard(month, reservations);
+        } catch (IOException e) {
+            dirty.add(month);
+            throw e;
+        }
+    }
+
+    /**
+     * Writes a month shard and records it in the manifest; an empty month is removed.
+     *
+     * @param month the month
+     * @param reservations the reservations of the month
+     * @throws IOException if the shard cannot be written
+     */
+    private void writeShard(YearMonth month, List<Reservation> reservations) throws IOException {
+        Path file = shardFile(month);
+        if (reservations.isEmpty()) {
+            Files.deleteIfExists(file);
+            manifest.remove(month);
+            return;
+        }
+        if (fileManager.saveReservations(file.toString(), reservations) < 0) {
+            throw new IOException("Could not write " + file);
+        }
+        manifest.put(month, reservations.size());
+    }
+
+    /**
+     * Writes the series file.
+     *
+     * @param series the series
+     * @throws IOException if the file cannot be written
+     */
+    private void writeSeries(List<ReservationSeries> series) throws IOException {
+        Path file = directory.resolve(SERIES_FILE);
+        if (fileManager.saveReservations(file.toString(), List.of(), series) < 0) {
+            throw new IOException("Could not write " + file);
+        }
+    }
+
+    /**
+     * Reads the manifest, if the store has one.
+     *
+     * @throws IOException if the manifest cannot be read
+     */
+    private void readManifest() throws IOException {
+        manifest.clear();
+        Path file = directory.resolve(MANIFEST_FILE);
+        if (!Files.exists(file)) {
+            return;
+        }
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] parts = line.split("=", 2);
+            try {
+                manifest.put(YearMonth.parse(parts[0]), parts.length > 1 ? Integer.parseInt(parts[1]) : 0);
+            } catch (RuntimeException e) {
+                System.out.println("Skipping invalid manifest entry: " + line);
+            }
+        }
+    }
+
+    /**
+     * Writes the manifest through a temporary file that atomically replaces it.
+     *
+     * @throws IOException if the manifest cannot be written
+     */
+    private void writeManifest() throws IOException {
+        Path file = directory.resolve(MANIFEST_FILE);
+        Path tempFile = directory.resolve(MANIFEST_FILE + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+            writer.write(MANIFEST_HEADER);
+            writer.newLine();
+            for (Map.Entry<YearMonth, Integer> month : manifest.entrySet()) {
+                writer.write(month.getKey() + "=" + month.getValue());
+                writer.newLine();
+            }
+        }
+        Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Gets the shard file of a month.
+     *
+     * @param month the month
+     * @return the shard path
+     */
+    private Path shardFile(YearMonth month) {
+        return directory.resolve(month + SHARD_EXTENSION);
+    }
+
+    /**
+     * Marks the month of a date as changed and schedules a flush.
+     *
+     * @param date the changed date
+     */
+    private void markDirty(LocalDate date) {
+        dirty.add(YearMonth.from(date));
+        scheduleFlush();
+    }
+
+    /**
+     * Schedules a flush at the end of the debounce window, unless one is already pending.
+     */
+    private void scheduleFlush() {
+        if (flushScheduled.compareAndSet(false, true) && !scheduler.isShutdown()) {
+            scheduler.schedule(() -> {
+                flushScheduled.set(false);
+                try {
+                    flush();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }, FLUSH_DELAY_MINUTES, TimeUnit.MINUTES);
+        }
+    }
+
+    // Listener callbacks run under the manager's lock, possibly on several
+    // threads at once, so they only record what changed in concurrent sets
+    // and never take the store's lock.
+
+    @Override
+    public void reservationAdded(Reservation reservation) {
+        markDirty(reservation.getDate());
+    }
+
+    @Override
+    public void reservationRemoved(Reservation reservation) {
+        markDirty(reservation.getDate());
+    }
+
+    @Override
+    public void reservationUpdated(Reservation previous, Reservation updated) {
+        markDirty(previous.getDate());
+        markDirty(updated.getDate());
+    }
+
+    @Override
+    public void reservationsLoaded(List<Reservation> reservations) {
+        // Everything held was replaced
+        dirty.addAll(residentMonths);
+        reservations.forEach(reservation -> markDirty(reservation.getDate()));
+        scheduleFlush();
+    }
+
+    @Override
+    public void reservationsAppended(List<Reservation> reservations, String source) {
+        if (Thread.currentThread() != loadingThread) {
+            reservations.forEach(reservation -> markDirty(reservation.getDate()));
+        }
+    }
+
+    @Override
+    public void reservationsEvicted(List<Reservation> reservations) {
+        // Evicted by this store after writing them back
+    }
+
+    @Override
+    public void seriesAdded(ReservationSeries series) {
+        markSeriesDirty();
+    }
+
+    @Override
+    public void seriesRemoved(ReservationSeries series) {
+        markSeriesDirty();
+    }
+
+    @Override
+    public void seriesUpdated(ReservationSeries previous, ReservationSeries updated) {
+        markSeriesDirty();
+    }
+
+    /**
+     * Marks the series as changed and schedules a flush.
+     */
+    private void markSeriesDirty() {
+        // Also when loading a month, where series give way to its reservations
+        seriesDirty = true;
+        scheduleFlush();
+    }
+}
@@ -0,0 +1,417 @@
+package controllers;
+
+import models.reservation.Recurrence;
+import models.reservation.Reservation;
+import models.reservation.ReservationSeries;
+import models.reservation.ReservationType;
+import models.room.Room;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * Streaming parser for the text (version 1) reservation file format.
+ * <p>
+ * The file is memory-mapped and scanned byte by byte: keys are matched in
+ * place, ISO dates and times are parsed by hand, and repeated rooms, dates
+ * and names reuse the same objects. Large files are split into
+ * record-aligned chunks that are parsed in parallel.
+ * <p>
+ * Records missing their room, date, times or type, or whose times are not
+ * on the hour, are dropped. SERIES
+ * blocks are skipped here and read separately by {@link #parseSeries}.
+ * A parser instance is not thread-safe; parallel parsing uses one per chunk.
+ */
+public class TextReservationParser {
+    private static final int PARALLEL_THRESHOLD_BYTES = 4 * 1024 * 1024;
+    private static final byte[] RESERVATION = ascii("RESERVATION");
+    private static final byte[] END = ascii("END");
+    private static final byte[] ROOM = ascii("room=");
+    private static final byte[] DATE = ascii("date=");
+    private static final byte[] START_TIME = ascii("startTime=");
+    private static final byte[] END_TIME = ascii("endTime=");
+    private static final byte[] RESERVED_BY = ascii("reservedBy=");
+    private static final byte[] TYPE = ascii("type=");
+    private static final ReservationType[] TYPES = ReservationType.values();
+    private static final byte[][] TYPE_NAMES = Arrays.stream(TYPES).map(t -> ascii(t.name())).toArray(byte[][]::new);
+
+    private final ReservationManager manager;
+    private final Map<String, String> names;
+    private byte[] lastRoomName;
+    private Room lastRoom;
+    private int lastDateKey = -1;
+    private LocalDate lastDate;
+
+    /**
+     * Constructs a TextReservationParser.
+     *
+     * @param manager the reservation manager used to resolve rooms
+     */
+    public TextReservationParser(ReservationManager manager) {
+        this.manager = manager;
+        this.names = new HashMap<>();
+    }
+
+    /**
+     * Parses a whole text file, in parallel chunks if it is large.
+     *
+     * @param file the file
+     * @param manager the reservation manager used to resolve rooms
+     * @return the parsed reservations, in file order
+     * @throws IOException if the file cannot be read
+     */
+    public static List<Reservation> parseFile(Path file, ReservationManager manager) throws IOException {
+        ByteBuffer buffer = map(file);
+        int size = buffer.limit();
+        int chunks = size < PARALLEL_THRESHOLD_BYTES ? 1 : Runtime.getRuntime().availableProcessors();
+        int[] bounds = new int[chunks + 1];
+        bounds[chunks] = size;
+        for (int i = 1; i < chunks; i++) {
+            bounds[i] = nextRecordStart(buffer, Math.max(bounds[i - 1], (int) ((long) size * i / chunks)), size);
+        }
+        List<List<Reservation>> parts = IntStream.range(0, chunks).parallel()
+            .mapToObj(i -> {
+                List<Reservation> part = new ArrayList<>();
+                new TextReservationParser(manager).parse(buffer, bounds[i], bounds[i + 1], part::add);
+                return part;
+            })
+            .toList();
+        List<Reservation> reservations = new ArrayList<>(parts.stream().mapToInt(List::size).sum());
+        parts.forEach(reservations::addAll);
+        return reservations;
+    }
+
+    /**
+     * Streams a text file, handing the parsed reservations to a sink in batches.
+     *
+     * @param file the file
+     * @param manager the reservation manager used to resolve rooms
+     * @param batchSize the maximum number of reservations per batch
+     * @param sink the consumer receiving each batch
+     * @throws IOException if the file cannot be read
+     */
+    public static void streamFile(Path file, ReservationManager manager, int batchSize,
+                                  Consumer<List<Reservation>> sink) throws IOException {
+        ByteBuffer buffer = map(file);
+        BatchingConsumer batches = new BatchingConsumer(batchSize, sink);
+        new TextReservationParser(manager).parse(buffer, 0, buffer.limit(), batches);
+        batches.flush();
+    }
+
+    /**
+     * Reads the SERIES blocks of a text file.
+     * Series are few, so they are read line by line; series whose room is
+     * unknown or with missing fields are dropped.
+     *
+     * @param file the file
+     * @param manager the reservation manager used to resolve rooms
+     * @return the series, in file order
+     * @throws IOException if the file cannot be read
+     */
+    public static List<ReservationSeries> parseSeries(Path file, ReservationManager manager) throws IOException {
+        List<ReservationSeries> series = new ArrayList<>();
+        Map<String, String> fields = null;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.equals("SERIES")) {
+                    fields = new HashMap<>();
+                } else if (line.equals("END")) {
+                    if (fields != null) {
+                        ReservationSeries parsed = parseOrNull(toSeries(fields, manager));
+                        if (parsed != null) {
+                            series.add(parsed);
+                        }
+                    }
+                    fields = null;
+                } else if (fields != null && line.indexOf('=') > 0) {
+                    fields.put(line.substring(0, line.indexOf('=')), line.substring(line.indexOf('=') + 1));
+                }
+            }
+        }
+        return series;
+    }
+
+    /**
+     * Builds a series from the fields of a SERIES block.
+     */
+    private static Supplier<ReservationSeries> toSeries(Map<String, String> fields, ReservationManager manager) {
+        return () -> {
+            Room room = manager.getRoom(fields.get("room"));
+            if (room == null) {
+                return null;
+            }
+            List<LocalDate> exceptions = new ArrayList<>();
+            String exceptionDates = fields.getOrDefault("exceptions", "");
+            if (!exceptionDates.isEmpty()) {
+                for (String date : exceptionDates.split(",")) {
+                    exceptions.add(LocalDate.parse(date));
+                }
+            }
+            return new ReservationSeries(room,
+                LocalDate.parse(fields.get("firstDate")),
+                LocalDate.parse(fields.get("lastDate")),
+                Recurrence.valueOf(fields.get("recurrence")),
+                LocalTime.parse(fields.get("startTime")),
+                LocalTime.parse(fields.get("endTime")),
+                fields.get("reservedBy"),
+                ReservationType.valueOf(fields.get("type")),
+                exceptions);
+        };
+    }
+
+    /**
+     * Parses the records in a range of a buffer.
+     *
+     * @param buffer the buffer holding the file
+     * @param from the first byte of the range, at the start of a line
+     * @param to the end of the range (exclusive)
+     * @param sink the consumer receiving each complete reservation
+     */
+    public void parse(ByteBuffer buffer, int from, int to, Consumer<Reservation> sink) {
+        boolean inRecord = false;
+        Room room = null;
+        LocalDate date = null;
+        LocalTime startTime = null;
+        LocalTime endTime = null;
+        String reservedBy = null;
+        ReservationType type = null;
+
+        int lineStart = from;
+        while (lineStart < to) {
+            int lineEnd = lineStart;
+            while (lineEnd < to && buffer.get(lineEnd) != '\n') {
+                lineEnd++;
+            }
+            int next = lineEnd + 1;
+            if (lineEnd > lineStart && buffer.get(lineEnd - 1) == '\r') {
+                lineEnd--;
+            }
+
+            if (equals(buffer, lineStart, lineEnd, RESERVATION)) {
+                inRecord = true;
+                room = null;
+                date = null;
+                startTime = null;
+                endTime = null;
+                reservedBy = null;
+                type = null;
+            } else if (equals(buffer, lineStart, lineEnd, END)) {
+                if (inRecord && room != null && date != null && startTime != null && endTime != null && type != null
+                        && Reservation.isOnTheHour(startTime) && Reservation.isOnTheHour(endTime)) {
+                    sink.accept(new Reservation(room, date, startTime, endTime, reservedBy, type));
+                }
+                inRecord = false;
+            } else if (inRecord) {
+                if (startsWith(buffer, lineStart, lineEnd, ROOM)) {
+                    room = parseRoom(buffer, lineStart + ROOM.length, lineEnd);
+                } else if (startsWith(buffer, lineStart, lineEnd, DATE)) {
+                    date = parseDate(buffer, lineStart + DATE.length, lineEnd);
+                } else if (startsWith(buffer, lineStart, lineEnd, START_TIME)) {
+                    startTime = parseTime(buffer, lineStart + START_TIME.length, lineEnd);
+                } else if (startsWith(buffer, lineStart, lineEnd, END_TIME)) {
+                    endTime = parseTime(buffer, lineStart + END_TIME.length, lineEnd);
+                } else if (startsWith(buffer, lineStart, lineEnd, RESERVED_BY)) {
+                    String name = string(buffer, lineStart + RESERVED_BY.length, lineEnd);
+                    reservedBy = names.computeIfAbsent(name, n -> n);
+                } else if (startsWith(buffer, lineStart, lineEnd, TYPE)) {
+                    type = parseType(buffer, lineStart + TYPE.length, lineEnd);
+                }
+            }
+            lineStart = next;
+        }
+    }
+
+    /**
+     * Resolves a room name, reusing the previous room when the name repeats.
+     */
+    private Room parseRoom(ByteBuffer buffer, int from, int to) {
+        if (lastRoomName == null || !equals(buffer, from, to, lastRoomName)) {
+            lastRoomName = new byte[to - from];
+            buffer.get(from, lastRoomName);
+            lastRoom = manager.getRoom(new String(lastRoomName, StandardCharsets.UTF_8));
+        }
+        return lastRoom;
+    }
+
+    /**
+     * Parses a yyyy-MM-dd date, reusing the previous date when it repeats.
+     */
+    private LocalDate parseDate(ByteBuffer buffer, int from, int to) {
+        if (to - from != 10 || buffer.get(from + 4) != '-' || buffer.get(from + 7) != '-') {
+            return parseOrNull(() -> LocalDate.parse(string(buffer, from, to)));
+        }
+        int year = digits(buffer, from, 4);
+        int month = digits(buffer, from + 5, 2);
+        int day = digits(buffer, from + 8, 2);
+        if (year < 0 || month < 0 || day < 0) {
+            return null;
+        }
+        int key = (year * 100 + month) * 100 + day;
+        if (key != lastDateKey) {
+            lastDate = parseOrNull(() -> LocalDate.of(year, month, day));
+            lastDateKey = key;
+        }
+        return lastDate;
+    }
+
+    /**
+     * Parses a HH:mm time.
+     */
+    private static LocalTime parseTime(ByteBuffer buffer, int from, int to) {
+        if (to - from != 5 || buffer.get(from + 2) != ':') {
+            return parseOrNull(() -> LocalTime.parse(string(buffer, from, to)));
+        }
+        int hour = digits(buffer, from, 2);
+        int minute = digits(buffer, from + 3, 2);
+        if (hour < 0 || minute < 0) {
+            return null;
+        }
+        return parseOrNull(() -> LocalTime.of(hour, minute));
+    }
+
+    /**
+     * Matches a reservation type name in place.
+     */
+    private static ReservationType parseType(ByteBuffer buffer, int from, int to) {
+        for (int i = 0; i < TYPES.length; i++) {
+            if (equals(buffer, from, to, TYPE_NAMES[i])) {
+                return TYPES[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Finds the first record start at or after a position.
+     *
+     * @return the offset of the next RESERVATION line, or the limit if there is none
+     */
+    private static int nextRecordStart(ByteBuffer buffer, int position, int limit) {
+        int lineStart = position;
+        if (lineStart > 0) {
+            // Move to the start of the next line
+            while (lineStart < limit && buffer.get(lineStart - 1) != '\n') {
+                lineStart++;
+            }
+        }
+        while (lineStart < limit) {
+            int lineEnd = lineStart;
+            while (lineEnd < limit && buffer.get(lineEnd) != '\n') {
+                lineEnd++;
+            }
+            int contentEnd = lineEnd > lineStart && buffer.get(lineEnd - 1) == '\r' ? lineEnd - 1 : lineEnd;
+            if (equals(buffer, lineStart, contentEnd, RESERVATION)) {
+                return lineStart;
+            }
+            lineStart = lineEnd + 1;
+        }
+        return limit;
+    }
+
+    private static ByteBuffer map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Reservation file too large to map: " + file);
+            }
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    private static int digits(ByteBuffer buffer, int from, int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static boolean equals(ByteBuffer buffer, int from, int to, byte[] expected) {
+        return to - from == expected.length && startsWith(buffer, from, to, expected);
+    }
+
+    private static boolean startsWith(ByteBuffer buffer, int from, int to, byte[] prefix) {
+        if (to - from < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (buffer.get(from + i) != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String string(ByteBuffer buffer, int from, int to) {
+        byte[] bytes = new byte[to - from];
+        buffer.get(from, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static <T> T parseOrNull(Supplier<T> parser) {
+        try {
+            return parser.get();
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Groups reservations into batches of a fixed size before handing them on.
+     */
+    static class BatchingConsumer implements Consumer<Reservation> {
+        private final int batchSize;
+        private final Consumer<List<Reservation>> sink;
+        private List<Reservation> batch;
+
+        /**
+         * Constructs a BatchingConsumer.
+         *
+         * @param batchSize the maximum number of reservations per batch
+         * @param sink the consumer receiving each batch
+         */
+        BatchingConsumer(int batchSize, Consumer<List<Reservation>> sink) {
+            this.batchSize = batchSize;
+            this.sink = sink;
+            this.batch = new ArrayList<>();
+        }
+
+        @Override
+        public void accept(Reservation reservation) {
+            batch.add(reservation);
+            if (batch.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        /**
+         * Hands the pending reservations to the sink, if any.
+         */
+        void flush() {
+            if (!batch.isEmpty()) {
+                sink.accept(batch);
+                batch = new ArrayList<>();
+            }
+        }
+    }
+}
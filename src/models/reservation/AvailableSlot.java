@@ -0,0 +1,41 @@
+package models.reservation;
+
+import models.room.Room;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Represents a free time slot of a room, as returned by an availability search.
+ */
+public class AvailableSlot {
+    private final Room room;
+    private final LocalDate date;
+    private final LocalTime startTime;
+    private final LocalTime endTime;
+
+    /**
+     * Constructs an AvailableSlot with the specified details.
+     *
+     * @param room the free room
+     * @param date the date of the slot
+     * @param startTime the start time of the slot
+     * @param endTime the end time of the slot
+     */
+    public AvailableSlot(Room room, LocalDate date, LocalTime startTime, LocalTime endTime) {
+        this.room = room;
+        this.date = date;
+        this.startTime = startTime;
+        this.endTime = endTime;
+    }
+
+    // Getters
+    public Room getRoom() { return room; }
+    public LocalDate getDate() { return date; }
+    public LocalTime getStartTime() { return startTime; }
+    public LocalTime getEndTime() { return endTime; }
+
+    @Override
+    public String toString() {
+        return String.format("Available: %s on %s - %s to %s", room.getName(), date, startTime, endTime);
+    }
+}
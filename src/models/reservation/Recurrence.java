@@ -0,0 +1,41 @@
+package models.reservation;
+
+/**
+ * Enum representing how often a reservation series repeats.
+ */
+public enum Recurrence {
+    WEEKLY("Weekly", 1),
+    BIWEEKLY("Biweekly", 2);
+
+    private final String displayName;
+    private final int intervalWeeks;
+
+    /**
+     * Constructs a Recurrence with the specified display name and interval.
+     *
+     * @param displayName the display name of the recurrence
+     * @param intervalWeeks the number of weeks between two occurrences
+     */
+    Recurrence(String displayName, int intervalWeeks) {
+        this.displayName = displayName;
+        this.intervalWeeks = intervalWeeks;
+    }
+
+    /**
+     * Gets the display name of the recurrence.
+     *
+     * @return the display name
+     */
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    /**
+     * Gets the number of weeks between two occurrences.
+     *
+     * @return the interval in weeks
+     */
+    public int getIntervalWeeks() {
+        return intervalWeeks;
+    }
+}
@@ -6,23 +6,27 @@ import java.time.LocalTime;
 
 /**
  * Represents a reservation for a room.
+ * <p>
+ * Reservations are immutable and stored compactly: the date as an epoch day,
+ * the times as whole hours and the type as its ordinal. The getters build the
+ * usual date and time values from these fields. Names are shared by the file
+ * readers, which hand every reservation of the same person one string for the
+ * duration of a load.
  */
 public class Reservation {
+    private static final ReservationType[] TYPES = ReservationType.values();
+    private static final byte NO_TYPE = -1;
 
-    private Room room;
-    private LocalDate date;
-    private LocalTime startTime;
-    private LocalTime endTime;
-    private String reservedBy;
-    private ReservationType type;
-
-    /**
-     * Default constructor.
-     */
-    public Reservation() {}
+    private final Room room;
+    private final int epochDay;
+    private final byte startHour;
+    private final byte endHour;
+    private final byte type;
+    private final String reservedBy;
 
     /**
      * Constructs a Reservation with the specified details.
+     * The times are kept to the hour, like the occupancy slots.
      *
      * @param room the room being reserved
      * @param date the date of the reservation
@@ -30,31 +34,61 @@ public class Reservation {
      * @param endTime the end time of the reservation
      * @param reservedBy the name of the person who reserved the room
      * @param type the type of the reservation
+     * @throws IllegalArgumentException if a time is not on the hour
      */
     public Reservation(Room room, LocalDate date, LocalTime startTime, LocalTime endTime, String reservedBy, ReservationType type) {
+        this(room, Math.toIntExact(date.toEpochDay()), hourOf(startTime), hourOf(endTime), reservedBy, type);
+    }
+
+    /**
+     * Constructs a Reservation from its compact fields.
+     *
+     * @param room the room being reserved
+     * @param epochDay the date of the reservation, as returned by {@code LocalDate.toEpochDay()}
+     * @param startHour the start hour of the reservation
+     * @param endHour the end hour of the reservation
+     * @param reservedBy the name of the person who reserved the room
+     * @param type the type of the reservation
+     */
+    public Reservation(Room room, int epochDay, int startHour, int endHour, String reservedBy, ReservationType type) {
         this.room = room;
-        this.date = date;
-        this.startTime = startTime;
-        this.endTime = endTime;
+        this.epochDay = epochDay;
+        this.startHour = (byte) startHour;
+        this.endHour = (byte) endHour;
+        this.type = type == null ? NO_TYPE : (byte) type.ordinal();
         this.reservedBy = reservedBy;
-        this.type = type;
+    }
+
+    /**
+     * Checks whether a time is on the hour, as reservation times must be.
+     *
+     * @param time the time
+     * @return true if the time has no minutes, seconds or fraction, false otherwise
+     */
+    public static boolean isOnTheHour(LocalTime time) {
+        return time.getMinute() == 0 && time.getSecond() == 0 && time.getNano() == 0;
+    }
+
+    /**
+     * Gets the hour of a reservation time, rejecting times that are not on the hour.
+     */
+    private static int hourOf(LocalTime time) {
+        if (!isOnTheHour(time)) {
+            throw new IllegalArgumentException("Times must be on the hour: " + time);
+        }
+        return time.getHour();
     }
 
     // Getters
     public Room getRoom() { return room; }
-    public LocalDate getDate() { return date; }
-    public LocalTime getStartTime() { return startTime; }
-    public LocalTime getEndTime() { return endTime; }
+    public LocalDate getDate() { return LocalDate.ofEpochDay(epochDay); }
+    public LocalTime getStartTime() { return LocalTime.of(startHour, 0); }
+    public LocalTime getEndTime() { return LocalTime.of(endHour, 0); }
     public String getReservedBy() { return reservedBy; }
-    public ReservationType getType() { return type; }
-
-    // Setters for mutable properties
-    public void setRoom(Room room) { this.room = room; }
-    public void setDate(LocalDate date) { this.date = date; }
-    public void setStartTime(LocalTime startTime) { this.startTime = startTime; }
-    public void setEndTime(LocalTime endTime) { this.endTime = endTime; }
-    public void setReservedBy(String reservedBy) { this.reservedBy = reservedBy; }
-    public void setType(ReservationType type) { this.type = type; }
+    public ReservationType getType() { return type == NO_TYPE ? null : TYPES[type]; }
+    public int getEpochDay() { return epochDay; }
+    public int getStartHour() { return startHour; }
+    public int getEndHour() { return endHour; }
 
     /**
      * Gets the duration of the reservation in hours.
@@ -62,7 +96,7 @@ public class Reservation {
      * @return the duration in hours
      */
     public int getDurationHours() {
-        return endTime.getHour() - startTime.getHour();
+        return endHour - startHour;
     }
 
     /**
@@ -72,15 +106,15 @@ public class Reservation {
      * @return true if the reservations overlap, false otherwise
      */
     public boolean overlaps(Reservation other) {
-        if (!this.date.equals(other.date) || !this.room.equals(other.room)) {
+        if (this.epochDay != other.epochDay || !this.room.equals(other.room)) {
             return false;
         }
-        return !(this.endTime.isBefore(other.startTime) || this.startTime.isAfter(other.endTime) || this.endTime.equals(other.startTime));
+        return !(this.endHour < other.startHour || this.startHour > other.endHour || this.endHour == other.startHour);
     }
-    
+
     @Override
     public String toString() {
-        return String.format("Reservation: %s - %s to %s by %s for %s", 
-            date, startTime, endTime, reservedBy, type.getDisplayName());
+        return String.format("Reservation: %s - %s to %s by %s for %s",
+            getDate(), getStartTime(), getEndTime(), reservedBy, getType().getDisplayName());
     }
-}
\ No newline at end of file
+}
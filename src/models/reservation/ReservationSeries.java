@@ -0,0 +1,228 @@
+package models.reservation;
+
+import models.room.Room;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Objects;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+/**
+ * Represents a recurring reservation, stored as a single object.
+ * <p>
+ * The series occurs on its first date and then every one or two weeks up
+ * to its last date, except on its exception dates. Occurrences are only
+ * materialized as {@link Reservation}s when asked for. A series is immutable;
+ * adding an exception returns a new series.
+ */
+public class ReservationSeries {
+    private final Room room;
+    private final LocalDate firstDate;
+    private final LocalDate lastDate;
+    private final Recurrence recurrence;
+    private final LocalTime startTime;
+    private final LocalTime endTime;
+    private final String reservedBy;
+    private final ReservationType type;
+    private final SortedSet<LocalDate> exceptions;
+
+    /**
+     * Constructs a ReservationSeries with the specified details.
+     *
+     * @param room the room being reserved
+     * @param firstDate the date of the first occurrence, which fixes the day of the week
+     * @param lastDate the last date an occurrence may fall on (inclusive)
+     * @param recurrence how often the series repeats
+     * @param startTime the start time of every occurrence
+     * @param endTime the end time of every occurrence
+     * @param reservedBy the name of the person who reserved the room
+     * @param type the type of the reservation
+     * @param exceptions the dates on which the series does not occur
+     * @throws IllegalArgumentException if a time is not on the hour
+     */
+    public ReservationSeries(Room room, LocalDate firstDate, LocalDate lastDate, Recurrence recurrence,
+                             LocalTime startTime, LocalTime endTime, String reservedBy, ReservationType type,
+                             Collection<LocalDate> exceptions) {
+        if (!Reservation.isOnTheHour(startTime) || !Reservation.isOnTheHour(endTime)) {
+            throw new IllegalArgumentException("Times must be on the hour: " + startTime + "-" + endTime);
+        }
+        this.room = room;
+        this.firstDate = firstDate;
+        this.lastDate = lastDate;
+        this.recurrence = recurrence;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.reservedBy = reservedBy;
+        this.type = type;
+        this.exceptions = Collections.unmodifiableSortedSet(new TreeSet<>(exceptions));
+    }
+
+    // Getters
+    public Room getRoom() { return room; }
+    public LocalDate getFirstDate() { return firstDate; }
+    public LocalDate getLastDate() { return lastDate; }
+    public Recurrence getRecurrence() { return recurrence; }
+    public LocalTime getStartTime() { return startTime; }
+    public LocalTime getEndTime() { return endTime; }
+    public String getReservedBy() { return reservedBy; }
+    public ReservationType getType() { return type; }
+    public SortedSet<LocalDate> getExceptions() { return exceptions; }
+
+    /**
+     * Checks if the series has an occurrence on a date.
+     *
+     * @param date the date
+     * @return true if the series occurs on the date, false otherwise
+     */
+    public boolean occursOn(LocalDate date) {
+        if (date.isBefore(firstDate) || date.isAfter(lastDate)) {
+            return false;
+        }
+        long days = ChronoUnit.DAYS.between(firstDate, date);
+        return days % (7L * recurrence.getIntervalWeeks()) == 0 && !exceptions.contains(date);
+    }
+
+    /**
+     * Gets the occurrence of the series on a date.
+     *
+     * @param date the date
+     * @return a new reservation for the occurrence, or null if the series does not occur on the date
+     */
+    public Reservation getOccurrence(LocalDate date) {
+        return occursOn(date) ? new Reservation(room, date, startTime, endTime, reservedBy, type) : null;
+    }
+
+    /**
+     * Checks if a reservation is an occurrence of this series.
+     *
+     * @param reservation the reservation
+     * @return true if the reservation matches an occurrence in every field, false otherwise
+     */
+    public boolean isOccurrence(Reservation reservation) {
+        return reservation != null
+            && room.equals(reservation.getRoom())
+            && startTime.equals(reservation.getStartTime())
+            && endTime.equals(reservation.getEndTime())
+            && Objects.equals(reservedBy, reservation.getReservedBy())
+            && type == reservation.getType()
+            && occursOn(reservation.getDate());
+    }
+
+    /**
+     * Lazily enumerates the dates of the occurrences.
+     *
+     * @return the occurrence dates, in order
+     */
+    public Stream<LocalDate> getOccurrenceDates() {
+        return Stream.iterate(firstDate, date -> !date.isAfter(lastDate),
+                date -> date.plusWeeks(recurrence.getIntervalWeeks()))
+            .filter(date -> !exceptions.contains(date));
+    }
+
+    /**
+     * Lazily expands the series into reservations, e.g. for exports.
+     *
+     * @return the occurrences, in order
+     */
+    public Stream<Reservation> getOccurrences() {
+        return getOccurrenceDates().map(date -> new Reservation(room, date, startTime, endTime, reservedBy, type));
+    }
+
+    /**
+     * Checks if the time of day of the series overlaps a time range.
+     *
+     * @param start the start of the range
+     * @param end the end of the range
+     * @return true if the ranges overlap, false otherwise
+     */
+    public boolean overlaps(LocalTime start, LocalTime end) {
+        return startTime.isBefore(end) && start.isBefore(endTime);
+    }
+
+    /**
+     * Checks if this series and another one ever book the same room at the same time.
+     * The check works on the recurrence arithmetic: only the dates both series
+     * could share are visited, and only to skip exception dates.
+     *
+     * @param other the other series
+     * @return true if an occurrence of each series overlaps, false otherwise
+     */
+    public boolean conflictsWith(ReservationSeries other) {
+        if (!room.equals(other.room) || !overlaps(other.startTime, other.endTime)
+                || firstDate.getDayOfWeek() != other.firstDate.getDayOfWeek()) {
+            return false;
+        }
+        LocalDate from = firstDate.isAfter(other.firstDate) ? firstDate : other.firstDate;
+        LocalDate to = lastDate.isBefore(other.lastDate) ? lastDate : other.lastDate;
+        if (from.isAfter(to)) {
+            return false;
+        }
+
+        // Weeks are counted from this series' first date: this series occurs on
+        // multiples of a, the other one on offset plus multiples of b.
+        int a = recurrence.getIntervalWeeks();
+        int b = other.recurrence.getIntervalWeeks();
+        long offset = ChronoUnit.WEEKS.between(firstDate, other.firstDate);
+        int step = a / gcd(a, b) * b;
+        long week = ChronoUnit.WEEKS.between(firstDate, from);
+        long end = week + step;
+        while (week < end && (week % a != 0 || Math.floorMod(week - offset, b) != 0)) {
+            week++;
+        }
+        if (week == end) {
+            return false;
+        }
+        for (LocalDate date = firstDate.plusWeeks(week); !date.isAfter(to); date = date.plusWeeks(step)) {
+            if (!exceptions.contains(date) && !other.exceptions.contains(date)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Creates a copy of the series that skips one more date.
+     *
+     * @param date the date to skip
+     * @return the new series
+     */
+    public ReservationSeries withException(LocalDate date) {
+        TreeSet<LocalDate> dates = new TreeSet<>(exceptions);
+        dates.add(date);
+        return new ReservationSeries(room, firstDate, lastDate, recurrence, startTime, endTime, reservedBy, type, dates);
+    }
+
+    private static int gcd(int a, int b) {
+        return b == 0 ? a : gcd(b, a % b);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ReservationSeries other)) return false;
+        return room.equals(other.room)
+            && firstDate.equals(other.firstDate)
+            && lastDate.equals(other.lastDate)
+            && recurrence == other.recurrence
+            && startTime.equals(other.startTime)
+            && endTime.equals(other.endTime)
+            && Objects.equals(reservedBy, other.reservedBy)
+            && type == other.type
+            && exceptions.equals(other.exceptions);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(room, firstDate, lastDate, recurrence, startTime, endTime, reservedBy, type, exceptions);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Series: %s %s to %s, %s to %s by %s for %s",
+            recurrence.getDisplayName(), firstDate, lastDate, startTime, endTime, reservedBy, type.getDisplayName());
+    }
+}
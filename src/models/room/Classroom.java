@@ -41,6 +41,15 @@ public class Classroom extends Room {
         return hasProjector;
     }
 
+    @Override
+    public boolean hasFeature(RoomFeature feature) {
+        return switch (feature) {
+            case WHITEBOARD -> hasWhiteboard;
+            case PROJECTOR -> hasProjector;
+            default -> false;
+        };
+    }
+
     @Override
     public boolean isValidReservationDuration(int hours) {
         return hours >= MIN_RESERVATION_INCREMENT && hours <= MAX_RESERVATION_HOURS;
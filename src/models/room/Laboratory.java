@@ -41,6 +41,15 @@ public class Laboratory extends Room {
         return hasElectricalOutlets;
     }
 
+    @Override
+    public boolean hasFeature(RoomFeature feature) {
+        return switch (feature) {
+            case PCS -> hasPCs;
+            case ELECTRICAL_OUTLETS -> hasElectricalOutlets;
+            default -> false;
+        };
+    }
+
     @Override
     public boolean isValidReservationDuration(int hours) {
         return hours >= MIN_RESERVATION_INCREMENT && 
@@ -70,6 +70,29 @@ public abstract class Room {
      */
     public abstract int getMinReservationIncrement();
 
+    /**
+     * Checks if the room offers a feature.
+     *
+     * @param feature the feature
+     * @return true if the room has the feature, false otherwise
+     */
+    public abstract boolean hasFeature(RoomFeature feature);
+
+    /**
+     * Gets the features of the room as a bitmask of {@link RoomFeature#bit()} values.
+     *
+     * @return the feature mask
+     */
+    public int getFeatureMask() {
+        int mask = 0;
+        for (RoomFeature feature : RoomFeature.values()) {
+            if (hasFeature(feature)) {
+                mask |= feature.bit();
+            }
+        }
+        return mask;
+    }
+
     @Override
     public String toString() {
         return "Room " + name + " (Capacity: " + capacity + ")";
@@ -0,0 +1,54 @@
+package models.room;
+
+/**
+ * Enum representing an equipment feature a room may offer.
+ */
+public enum RoomFeature {
+    WHITEBOARD("Whiteboard"),
+    PROJECTOR("Projector"),
+    PCS("PCs"),
+    ELECTRICAL_OUTLETS("Electrical Outlets");
+
+    private final String displayName;
+
+    /**
+     * Constructs a RoomFeature with the specified display name.
+     *
+     * @param displayName the display name of the room feature
+     */
+    RoomFeature(String displayName) {
+        this.displayName = displayName;
+    }
+
+    /**
+     * Gets the display name of the room feature.
+     *
+     * @return the display name
+     */
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    /**
+     * Gets the bit representing this feature in a feature mask.
+     *
+     * @return the feature bit
+     */
+    public int bit() {
+        return 1 << ordinal();
+    }
+
+    /**
+     * Builds a feature mask from a collection of features.
+     *
+     * @param features the features
+     * @return the feature mask
+     */
+    public static int maskOf(Iterable<RoomFeature> features) {
+        int mask = 0;
+        for (RoomFeature feature : features) {
+            mask |= feature.bit();
+        }
+        return mask;
+    }
+}
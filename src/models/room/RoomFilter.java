@@ -0,0 +1,104 @@
+package models.room;
+
+import java.util.EnumSet;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Immutable filter selecting rooms by type, minimum capacity and features.
+ */
+public class RoomFilter {
+    /**
+     * The filter matching every room.
+     */
+    public static final RoomFilter ALL = new RoomFilter(null, 0, Set.of());
+
+    private final RoomType roomType;
+    private final int minCapacity;
+    private final Set<RoomFeature> requiredFeatures;
+    private final int featureMask;
+
+    /**
+     * Constructs a RoomFilter.
+     *
+     * @param roomType the required room type, or null for any type
+     * @param minCapacity the minimum room capacity
+     * @param requiredFeatures the features the room must offer, may be empty
+     */
+    public RoomFilter(RoomType roomType, int minCapacity, Set<RoomFeature> requiredFeatures) {
+        this.roomType = roomType;
+        this.minCapacity = minCapacity;
+        this.requiredFeatures = requiredFeatures.isEmpty()
+            ? Set.of() : Set.copyOf(EnumSet.copyOf(requiredFeatures));
+        this.featureMask = RoomFeature.maskOf(requiredFeatures);
+    }
+
+    /**
+     * Gets the required room type.
+     *
+     * @return the room type, or null for any type
+     */
+    public RoomType getRoomType() {
+        return roomType;
+    }
+
+    /**
+     * Gets the minimum room capacity.
+     *
+     * @return the minimum capacity
+     */
+    public int getMinCapacity() {
+        return minCapacity;
+    }
+
+    /**
+     * Gets the features a room must offer.
+     *
+     * @return an unmodifiable set of the required features
+     */
+    public Set<RoomFeature> getRequiredFeatures() {
+        return requiredFeatures;
+    }
+
+    /**
+     * Checks whether a room passes the filter.
+     *
+     * @param room the room
+     * @return true if the room matches, false otherwise
+     */
+    public boolean matches(Room room) {
+        return (roomType == null || room.getType() == roomType)
+            && room.getCapacity() >= minCapacity
+            && (room.getFeatureMask() & featureMask) == featureMask;
+    }
+
+    /**
+     * Checks whether the filter matches every room.
+     *
+     * @return true if nothing is filtered out, false otherwise
+     */
+    public boolean isEmpty() {
+        return roomType == null && minCapacity <= 0 && featureMask == 0;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof RoomFilter other)) return false;
+        return roomType == other.roomType && minCapacity == other.minCapacity && featureMask == other.featureMask;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(roomType, minCapacity, featureMask);
+    }
+
+    @Override
+    public String toString() {
+        return "RoomFilter{" +
+                "roomType=" + roomType +
+                ", minCapacity=" + minCapacity +
+                ", requiredFeatures=" + requiredFeatures +
+                '}';
+    }
+}
@@ -0,0 +1,293 @@
+package utils;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Load-test client for the booking service started with {@code app.Main --serve}.
+ * <p>
+ * The client first sends every thread after the same free slot at once and checks
+ * that exactly one booking is accepted. It then runs a closed loop of mixed
+ * requests for a fixed time (half day schedules, a fifth free-slot queries,
+ * a fifth bookings and a tenth cancellations of its own bookings) and reports
+ * the throughput and the latency percentiles of each kind of request.
+ * Bookings are made on the next 28 days, so run it against a scratch server.
+ */
+public class LoadTestClient {
+    private static final Pattern ROOM_NAME = Pattern.compile("\"name\":(\"(?:[^\"\\\\]|\\\\.)*\")");
+    private static final String RESERVED_BY = "Load Test";
+    private static final int BOOKING_DAYS = 28;
+    private static final int DURATION_HOURS = 2;
+    private static final String[] OPERATIONS = {"schedule", "free", "book", "cancel"};
+
+    private final HttpClient client;
+    private final String baseUrl;
+    private final List<String> rooms;
+
+    /**
+     * Latencies and statuses recorded by one worker thread.
+     */
+    private static class Recorder {
+        private final long[][] latencies = new long[OPERATIONS.length][1024];
+        private final int[] counts = new int[OPERATIONS.length];
+        private final Map<Integer, Integer> statuses = new TreeMap<>();
+        private int failures;
+
+        void record(int operation, long nanos, int status) {
+            if (counts[operation] == latencies[operation].length) {
+                latencies[operation] = Arrays.copyOf(latencies[operation], counts[operation] * 2);
+            }
+            latencies[operation][counts[operation]++] = nanos;
+            statuses.merge(status, 1, Integer::sum);
+        }
+    }
+
+    /**
+     * Constructs a LoadTestClient and fetches the rooms of the service.
+     *
+     * @param baseUrl the base URL of the service, e.g. {@code http://localhost:8080}
+     * @throws IOException if the rooms cannot be fetched
+     * @throws InterruptedException if interrupted while fetching the rooms
+     */
+    public LoadTestClient(String baseUrl) throws IOException, InterruptedException {
+        this.client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.rooms = new ArrayList<>();
+        HttpResponse<String> response = send(HttpRequest.newBuilder(URI.create(this.baseUrl + "/rooms")).GET());
+        Matcher matcher = ROOM_NAME.matcher(response.body());
+        while (matcher.find()) {
+            rooms.add(JsonUtils.parseObject("{\"name\":" + matcher.group(1) + "}").get("name"));
+        }
+        if (rooms.isEmpty()) {
+            throw new IOException("The service has no rooms");
+        }
+    }
+
+    /**
+     * Sends all threads after the same free slot at the same time.
+     *
+     * @param threads the number of concurrent attempts
+     * @param date the date to find a free slot on
+     * @return the number of accepted bookings, which must be 1
+     * @throws IOException if no free slot can be found
+     * @throws InterruptedException if interrupted while waiting for the attempts
+     */
+    public int runContention(int threads, LocalDate date) throws IOException, InterruptedException {
+        String slots = get("/free?date=" + date + "&duration=" + DURATION_HOURS + "&limit=1").body();
+        int open = slots.indexOf('{', 1);
+        if (open < 0) {
+            throw new IOException("No free slot on " + date);
+        }
+        Map<String, String> slot = JsonUtils.parseObject(slots.substring(open, slots.indexOf('}', open) + 1));
+        String room = slot.get("room");
+        int hour = Integer.parseInt(slot.get("start").substring(0, 2));
+        AtomicInteger created = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+        CountDownLatch ready = new CountDownLatch(threads);
+        CountDownLatch go = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            Thread worker = new Thread(() -> {
+                ready.countDown();
+                try {
+                    go.await();
+                    int status = book(room, date, hour).statusCode();
+                    if (status == 201) {
+                        created.incrementAndGet();
+                    } else if (status == 409) {
+                        conflicts.incrementAndGet();
+                    }
+                } catch (IOException e) {
+                    e.printStackTrace();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        ready.await();
+        go.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        System.out.println("Contention: " + threads + " concurrent attempts on " + room + " " + date
+            + " " + hour + ":00, " + created.get() + " created, " + conflicts.get() + " conflicts.");
+        cancel(room, date, hour);
+        return created.get();
+    }
+
+    /**
+     * Runs mixed requests from several threads and prints the results.
+     *
+     * @param threads the number of concurrent clients
+     * @param seconds the duration of the run
+     * @param firstDate the first date bookings and queries are made on
+     * @throws InterruptedException if interrupted while waiting for the clients
+     */
+    public void runMixed(int threads, int seconds, LocalDate firstDate) throws InterruptedException {
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        Recorder[] recorders = new Recorder[threads];
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            Recorder recorder = new Recorder();
+            recorders[i] = recorder;
+            long seed = i;
+            Thread worker = new Thread(() -> runWorker(recorder, new Random(seed), firstDate, deadline));
+            worker.start();
+            workers.add(worker);
+        }
+        long start = System.nanoTime();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+
+        long total = 0;
+        int failures = 0;
+        Map<Integer, Integer> statuses = new TreeMap<>();
+        for (Recorder recorder : recorders) {
+            failures += recorder.failures;
+            recorder.statuses.forEach((status, count) -> statuses.merge(status, count, Integer::sum));
+        }
+        for (int operation = 0; operation < OPERATIONS.length; operation++) {
+            int count = 0;
+            for (Recorder recorder : recorders) {
+                count += recorder.counts[operation];
+            }
+            long[] latencies = new long[count];
+            int offset = 0;
+            for (Recorder recorder : recorders) {
+                System.arraycopy(recorder.latencies[operation], 0, latencies, offset, recorder.counts[operation]);
+                offset += recorder.counts[operation];
+            }
+            total += count;
+            printLatencies(OPERATIONS[operation], latencies, elapsedSeconds);
+        }
+        System.out.printf("Total: %d requests in %.1f s, %.0f requests/s with %d threads, %d failed, statuses %s%n",
+            total, elapsedSeconds, total / elapsedSeconds, threads, failures, statuses);
+    }
+
+    /**
+     * Sends random requests until the deadline.
+     */
+    private void runWorker(Recorder recorder, Random random, LocalDate firstDate, long deadline) {
+        List<String[]> booked = new ArrayList<>();
+        while (System.nanoTime() < deadline) {
+            String room = rooms.get(random.nextInt(rooms.size()));
+            LocalDate date = firstDate.plusDays(random.nextInt(BOOKING_DAYS));
+            int hour = 8 + random.nextInt(18 - 8 - DURATION_HOURS + 1);
+            int dice = random.nextInt(10);
+            int operation = dice < 5 ? 0 : dice < 7 ? 1 : dice < 9 || booked.isEmpty() ? 2 : 3;
+            long start = System.nanoTime();
+            try {
+                HttpResponse<String> response;
+                switch (operation) {
+                    case 0 -> response = get("/schedule?date=" + date);
+                    case 1 -> response = get("/free?date=" + date + "&duration=" + DURATION_HOURS + "&limit=20");
+                    case 2 -> {
+                        response = book(room, date, hour);
+                        if (response.statusCode() == 201) {
+                            booked.add(new String[] {room, date.toString(), Integer.toString(hour)});
+                        }
+                    }
+                    default -> {
+                        String[] slot = booked.remove(booked.size() - 1);
+                        response = cancel(slot[0], LocalDate.parse(slot[1]), Integer.parseInt(slot[2]));
+                    }
+                }
+                recorder.record(operation, System.nanoTime() - start, response.statusCode());
+            } catch (IOException e) {
+                recorder.failures++;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private HttpResponse<String> get(String path) throws IOException, InterruptedException {
+        return send(HttpRequest.newBuilder(URI.create(baseUrl + path)).GET());
+    }
+
+    private HttpResponse<String> book(String room, LocalDate date, int hour) throws IOException, InterruptedException {
+        String body = String.format("{\"room\":%s,\"date\":\"%s\",\"start\":\"%02d:00\",\"end\":\"%02d:00\",\"reservedBy\":%s,\"type\":\"OTHER\"}",
+            JsonUtils.quote(room), date, hour, hour + DURATION_HOURS, JsonUtils.quote(RESERVED_BY));
+        return send(HttpRequest.newBuilder(URI.create(baseUrl + "/reservations"))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(body)));
+    }
+
+    private HttpResponse<String> cancel(String room, LocalDate date, int hour) throws IOException, InterruptedException {
+        String query = String.format("room=%s&date=%s&start=%02d:00", URLEncoder.encode(room, StandardCharsets.UTF_8), date, hour);
+        return send(HttpRequest.newBuilder(URI.create(baseUrl + "/reservations?" + query)).DELETE());
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        return client.send(request.timeout(Duration.ofSeconds(30)).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static void printLatencies(String operation, long[] latencies, double elapsedSeconds) {
+        if (latencies.length == 0) {
+            System.out.printf("%-9s no requests%n", operation);
+            return;
+        }
+        Arrays.sort(latencies);
+        double sum = 0;
+        for (long latency : latencies) {
+            sum += latency;
+        }
+        System.out.printf("%-9s %8d requests %8.0f/s  mean %7.2f ms  p50 %7.2f ms  p99 %7.2f ms  max %7.2f ms%n",
+            operation, latencies.length, latencies.length / elapsedSeconds, sum / latencies.length / 1e6,
+            percentile(latencies, 50), percentile(latencies, 99), latencies[latencies.length - 1] / 1e6);
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        int rank = (int) Math.ceil(sorted.length * percentile / 100);
+        return sorted[Math.max(rank - 1, 0)] / 1e6;
+    }
+
+    /**
+     * Runs the contention check and the mixed load test.
+     * Usage: {@code LoadTestClient <base url> <threads> <seconds> [first date]}
+     *
+     * @param args the command line arguments
+     * @throws Exception if the service cannot be reached
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 3 || args.length > 4) {
+            System.out.println("Usage: LoadTestClient <base url> <threads> <seconds> [first date]");
+            return;
+        }
+        int threads = Integer.parseInt(args[1]);
+        int seconds = Integer.parseInt(args[2]);
+        LocalDate firstDate = args.length == 4 ? LocalDate.parse(args[3]) : LocalDate.now().plusDays(1);
+
+        LoadTestClient loadTest = new LoadTestClient(args[0]);
+        if (loadTest.runContention(threads, firstDate) != 1) {
+            System.out.println("Conflict detection failed: the slot was not booked exactly once.");
+            System.exit(1);
+        }
+        loadTest.runMixed(threads, seconds, firstDate);
+    }
+}
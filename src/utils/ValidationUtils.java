@@ -1,5 +1,6 @@
 package utils;
 
+import controllers.ReservationManager;
 import models.reservation.Reservation;
 import models.room.Room;
 import java.time.LocalDate;
@@ -85,6 +86,10 @@ public class ValidationUtils {
             return ValidationResult.failure("Reservation must be within business hours (8:00-18:00)");
         }
 
+        if (!Reservation.isOnTheHour(startTime) || !Reservation.isOnTheHour(endTime)) {
+            return ValidationResult.failure("Reservation times must be on the hour");
+        }
+
         if (!startTime.isBefore(endTime)) {
             return ValidationResult.failure("Start time must be before end time");
         }
@@ -158,6 +163,26 @@ public class ValidationUtils {
         return ValidationResult.success();
     }
 
+    /**
+     * Validates that there are no conflicts with existing reservations,
+     * using the manager's occupancy grid instead of scanning reservations.
+     *
+     * @param newReservation the new reservation
+     * @param manager the reservation manager
+     * @param reservationBeingEdited the reservation being edited (if any)
+     * @return the validation result
+     */
+    public static ValidationResult validateNoConflict(Reservation newReservation, ReservationManager manager, Reservation reservationBeingEdited) {
+        boolean isFree = manager.isRangeFree(newReservation.getRoom(), newReservation.getDate(),
+                newReservation.getStartTime(), newReservation.getEndTime(), reservationBeingEdited);
+
+        if (!isFree) {
+            return ValidationResult.failure("This time slot conflicts with an existing reservation");
+        }
+
+        return ValidationResult.success();
+    }
+
     /**
      * Validates the room and its capacity.
      *
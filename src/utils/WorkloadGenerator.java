@@ -0,0 +1,251 @@
+package utils;
+
+import controllers.FileManager;
+import controllers.ReservationManager;
+import models.reservation.Reservation;
+import models.reservation.ReservationType;
+import models.room.Classroom;
+import models.room.Laboratory;
+import models.room.Room;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Consumer;
+
+/**
+ * Deterministic generator of synthetic campus-scale workloads.
+ * <p>
+ * The same seed always produces the same rooms and reservations, so
+ * benchmarks, stress tests and demos can share scaled data sets. Generated
+ * reservations never overlap, respect each room's duration rules, fall on
+ * weekdays only and are denser around the mid-morning and mid-afternoon peaks.
+ */
+public class WorkloadGenerator {
+    private static final int OPENING_HOUR = 8;
+    private static final int CLOSING_HOUR = 18;
+    private static final double[] HOURLY_DEMAND = {0.5, 0.85, 1.0, 1.0, 0.55, 0.7, 0.95, 0.9, 0.6, 0.3};
+    private static final int[] CLASSROOM_DURATIONS = {1, 2, 2, 2, 3, 3, 4, 6, 8};
+    private static final int[] LABORATORY_DURATIONS = {2, 2, 2, 4};
+    private static final String[] SYLLABLES = {"ro", "ma", "li", "ve", "sa", "ten", "bor", "ga", "ni", "del", "pe", "mon", "ca", "ri", "lu", "fa"};
+    private static final int NAME_POOL_SIZE = 2000;
+    private static final double DEFAULT_DENSITY = 0.6;
+    private static final int BATCH_SIZE = 10_000;
+
+    private final Random random;
+    private final String[] names;
+
+    /**
+     * Constructs a WorkloadGenerator.
+     *
+     * @param seed the random seed
+     */
+    public WorkloadGenerator(long seed) {
+        this.random = new Random(seed);
+        this.names = new String[NAME_POOL_SIZE];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = "Prof. " + capitalize(word(2 + random.nextInt(2))) + " " + capitalize(word(2 + random.nextInt(3)));
+        }
+    }
+
+    /**
+     * Generates rooms spread over buildings, about 70% classrooms.
+     *
+     * @param count the number of rooms
+     * @return the rooms
+     */
+    public List<Room> generateRooms(int count) {
+        List<Room> rooms = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String building = String.format("B%02d", i / 200 + 1);
+            if (random.nextDouble() < 0.7) {
+                int capacity = 15 + 5 * random.nextInt(40);
+                rooms.add(new Classroom(String.format("%s-C%04d", building, i), capacity,
+                    random.nextDouble() < 0.8, random.nextDouble() < 0.6));
+            } else {
+                int capacity = 10 + 5 * random.nextInt(7);
+                rooms.add(new Laboratory(String.format("%s-L%04d", building, i), capacity,
+                    random.nextDouble() < 0.85, random.nextDouble() < 0.7));
+            }
+        }
+        return rooms;
+    }
+
+    /**
+     * Writes rooms in the rooms.txt configuration format.
+     *
+     * @param rooms the rooms
+     * @param file the file to write
+     * @throws IOException if the file cannot be written
+     */
+    public static void writeRooms(List<Room> rooms, Path file) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            for (Room room : rooms) {
+                boolean feature1 = room instanceof Classroom classroom ? classroom.hasWhiteboard() : ((Laboratory) room).hasPCs();
+                boolean feature2 = room instanceof Classroom classroom ? classroom.hasProjector() : ((Laboratory) room).hasElectricalOutlets();
+                writer.write(String.join(",", room.getName(), room.getType().getDisplayName(),
+                    String.valueOf(room.getCapacity()), String.valueOf(feature1), String.valueOf(feature2)));
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * Generates reservations for every weekday of a date range.
+     *
+     * @param rooms the rooms
+     * @param from the first date
+     * @param to the last date (inclusive)
+     * @param density the share of peak-hour slots to fill, between 0 and 1
+     * @param sink the consumer receiving each reservation, ordered by date
+     */
+    public void generateReservations(List<Room> rooms, LocalDate from, LocalDate to, double density, Consumer<Reservation> sink) {
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            generateDay(rooms, date, density, sink, Long.MAX_VALUE);
+        }
+    }
+
+    /**
+     * Generates a fixed number of reservations, starting at a date and using as many weekdays as needed.
+     *
+     * @param rooms the rooms
+     * @param from the first date
+     * @param count the number of reservations
+     * @param density the share of peak-hour slots to fill, between 0 and 1
+     * @return the reservations, ordered by date
+     */
+    public List<Reservation> generateReservations(List<Room> rooms, LocalDate from, int count, double density) {
+        List<Reservation> reservations = new ArrayList<>(count);
+        for (LocalDate date = from; reservations.size() < count; date = date.plusDays(1)) {
+            generateDay(rooms, date, density, reservations::add, count - reservations.size());
+        }
+        return reservations;
+    }
+
+    /**
+     * Generates a workload straight into a manager, in batches.
+     *
+     * @param manager the reservation manager
+     * @param rooms the rooms, added to the manager first
+     * @param from the first date
+     * @param to the last date (inclusive)
+     * @param density the share of peak-hour slots to fill, between 0 and 1
+     */
+    public void generateInto(ReservationManager manager, List<Room> rooms, LocalDate from, LocalDate to, double density) {
+        manager.addRooms(rooms);
+        List<Reservation> batch = new ArrayList<>();
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            generateDay(rooms, date, density, batch::add, Long.MAX_VALUE);
+            if (batch.size() >= BATCH_SIZE) {
+                manager.appendReservations(batch);
+                batch = new ArrayList<>();
+            }
+        }
+        manager.appendReservations(batch);
+    }
+
+    /**
+     * Generates the reservations of every room on one day.
+     *
+     * @param limit the maximum number of reservations to emit
+     * @return the number of reservations emitted
+     */
+    private long generateDay(List<Room> rooms, LocalDate date, double density, Consumer<Reservation> sink, long limit) {
+        if (date.getDayOfWeek() == DayOfWeek.SATURDAY || date.getDayOfWeek() == DayOfWeek.SUNDAY) {
+            return 0;
+        }
+        long emitted = 0;
+        for (Room room : rooms) {
+            int hour = OPENING_HOUR;
+            while (hour < CLOSING_HOUR && emitted < limit) {
+                if (random.nextDouble() >= density * HOURLY_DEMAND[hour - OPENING_HOUR]) {
+                    hour++;
+                    continue;
+                }
+                int duration = pickDuration(room, CLOSING_HOUR - hour);
+                if (duration == 0) {
+                    break;
+                }
+                sink.accept(new Reservation(room, date, LocalTime.of(hour, 0), LocalTime.of(hour + duration, 0),
+                    names[random.nextInt(names.length)], pickType()));
+                emitted++;
+                hour += duration;
+            }
+        }
+        return emitted;
+    }
+
+    /**
+     * Picks a duration allowed by the room that fits before closing time.
+     *
+     * @return the duration in hours, or 0 if none fits
+     */
+    private int pickDuration(Room room, int hoursLeft) {
+        int[] durations = room instanceof Laboratory ? LABORATORY_DURATIONS : CLASSROOM_DURATIONS;
+        int duration = durations[random.nextInt(durations.length)];
+        while (duration > hoursLeft || !room.isValidReservationDuration(duration)) {
+            duration -= room.getMinReservationIncrement();
+            if (duration < room.getMinReservationIncrement()) {
+                return 0;
+            }
+        }
+        return duration;
+    }
+
+    private ReservationType pickType() {
+        double roll = random.nextDouble();
+        if (roll < 0.7) return ReservationType.LESSON;
+        if (roll < 0.8) return ReservationType.EXAM;
+        if (roll < 0.9) return ReservationType.CATCH_UP;
+        return ReservationType.OTHER;
+    }
+
+    private String word(int syllables) {
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i < syllables; i++) {
+            word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        return word.toString();
+    }
+
+    private static String capitalize(String word) {
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+
+    /**
+     * Writes a generated rooms file and reservation file.
+     * Usage: {@code WorkloadGenerator <rooms> <years> <seed> <output base name>}
+     *
+     * @param args the command line arguments
+     * @throws IOException if a file cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 4) {
+            System.out.println("Usage: WorkloadGenerator <rooms> <years> <seed> <output base name>");
+            return;
+        }
+        int roomCount = Integer.parseInt(args[0]);
+        int years = Integer.parseInt(args[1]);
+        WorkloadGenerator generator = new WorkloadGenerator(Long.parseLong(args[2]));
+        String baseName = args[3];
+
+        List<Room> rooms = generator.generateRooms(roomCount);
+        writeRooms(rooms, Paths.get(baseName + "-rooms.txt"));
+
+        LocalDate from = LocalDate.of(LocalDate.now().getYear() - years + 1, 1, 1);
+        LocalDate to = from.plusYears(years).minusDays(1);
+        List<Reservation> reservations = new ArrayList<>();
+        generator.generateReservations(rooms, from, to, DEFAULT_DENSITY, reservations::add);
+        long bytes = new FileManager().saveReservations(baseName, reservations);
+        System.out.println("Generated " + rooms.size() + " rooms and " + reservations.size()
+            + " reservations (" + bytes + " bytes).");
+    }
+}
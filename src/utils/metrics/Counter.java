@@ -0,0 +1,36 @@
+package utils.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A monotonically increasing counter.
+ * Increments are striped across cells, so concurrent writers never contend on a lock.
+ */
+public class Counter {
+    private final LongAdder value = new LongAdder();
+
+    /**
+     * Increments the counter by one.
+     */
+    public void increment() {
+        value.increment();
+    }
+
+    /**
+     * Adds an amount to the counter.
+     *
+     * @param amount the amount to add
+     */
+    public void add(long amount) {
+        value.add(amount);
+    }
+
+    /**
+     * Gets the current value of the counter.
+     *
+     * @return the sum of all increments
+     */
+    public long get() {
+        return value.sum();
+    }
+}
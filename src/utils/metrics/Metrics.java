@@ -0,0 +1,32 @@
+package utils.metrics;
+
+/**
+ * Holds the metrics registry used by the application.
+ * <p>
+ * A different registry can be plugged in with {@link #setRegistry} before
+ * the managers are created; components resolve their metrics when they are
+ * constructed.
+ */
+public final class Metrics {
+    private static volatile MetricsRegistry registry = new DefaultMetricsRegistry();
+
+    private Metrics() {}
+
+    /**
+     * Gets the application's metrics registry.
+     *
+     * @return the registry
+     */
+    public static MetricsRegistry getRegistry() {
+        return registry;
+    }
+
+    /**
+     * Replaces the application's metrics registry.
+     *
+     * @param newRegistry the registry to use from now on
+     */
+    public static void setRegistry(MetricsRegistry newRegistry) {
+        registry = newRegistry;
+    }
+}
@@ -0,0 +1,91 @@
+package utils.metrics;
+
+import javax.management.*;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+
+/**
+ * Exposes the metrics of a registry as read-only JMX attributes.
+ * <p>
+ * The attribute list follows the registry, so metrics registered after the
+ * bean show up without re-registering it.
+ */
+public class MetricsMBean implements DynamicMBean {
+    /** The object name the application's metrics are registered under. */
+    public static final String OBJECT_NAME = "roommanager:type=Metrics";
+
+    private final MetricsRegistry registry;
+
+    /**
+     * Constructs a MetricsMBean.
+     *
+     * @param registry the registry to expose
+     */
+    public MetricsMBean(MetricsRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Registers a registry with the platform MBean server.
+     *
+     * @param registry the registry to expose
+     */
+    public static void register(MetricsRegistry registry) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(new MetricsMBean(registry), name);
+        } catch (JMException e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public Object getAttribute(String attribute) throws AttributeNotFoundException {
+        Number value = registry.snapshot().get(attribute);
+        if (value == null) {
+            throw new AttributeNotFoundException(attribute);
+        }
+        return value;
+    }
+
+    @Override
+    public AttributeList getAttributes(String[] attributes) {
+        Map<String, Number> values = registry.snapshot();
+        AttributeList list = new AttributeList();
+        for (String attribute : attributes) {
+            if (values.containsKey(attribute)) {
+                list.add(new Attribute(attribute, values.get(attribute)));
+            }
+        }
+        return list;
+    }
+
+    @Override
+    public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+        throw new AttributeNotFoundException("Metrics are read-only: " + attribute.getName());
+    }
+
+    @Override
+    public AttributeList setAttributes(AttributeList attributes) {
+        return new AttributeList();
+    }
+
+    @Override
+    public Object invoke(String actionName, Object[] params, String[] signature) throws MBeanException {
+        throw new MBeanException(new UnsupportedOperationException(actionName));
+    }
+
+    @Override
+    public MBeanInfo getMBeanInfo() {
+        Map<String, Number> values = registry.snapshot();
+        MBeanAttributeInfo[] attributes = values.entrySet().stream()
+            .map(entry -> new MBeanAttributeInfo(entry.getKey(), entry.getValue().getClass().getName(),
+                entry.getKey(), true, false, false))
+            .toArray(MBeanAttributeInfo[]::new);
+        return new MBeanInfo(getClass().getName(), "Room Manager metrics", attributes, null, null, null);
+    }
+}
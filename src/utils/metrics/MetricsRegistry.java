@@ -0,0 +1,47 @@
+package utils.metrics;
+
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * A registry of named metrics.
+ * <p>
+ * Components look their metrics up once, when they are created, and then
+ * record into them directly, so the registry itself is never on the hot
+ * path. Implementations can forward metrics to another monitoring system;
+ * the default one keeps them in memory and is exported over JMX by
+ * {@link MetricsMBean}.
+ */
+public interface MetricsRegistry {
+    /**
+     * Gets or creates a counter.
+     *
+     * @param name the metric name
+     * @return the counter registered under the name
+     */
+    Counter counter(String name);
+
+    /**
+     * Gets or creates a latency histogram.
+     *
+     * @param name the metric name
+     * @return the histogram registered under the name
+     */
+    LatencyHistogram histogram(String name);
+
+    /**
+     * Registers a gauge, replacing any gauge with the same name.
+     *
+     * @param name the metric name
+     * @param value the supplier of the current value
+     */
+    void gauge(String name, LongSupplier value);
+
+    /**
+     * Gets the current values of all metrics, flattened to numbers.
+     * Histograms contribute their count, mean, 99th percentile and maximum.
+     *
+     * @return the metric values, sorted by name
+     */
+    Map<String, Number> snapshot();
+}
@@ -0,0 +1,305 @@
+package views;
+
+import controllers.ReservationListener;
+import controllers.ReservationManager;
+import models.reservation.Reservation;
+import models.reservation.ReservationSeries;
+import models.room.Room;
+import utils.metrics.Counter;
+import utils.metrics.Metrics;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded cache of the reservation grids of single days, as shown by
+ * {@link RoomTableView}: one cell per hour and shown room.
+ * <p>
+ * Grids missing on the Event Dispatch Thread are built on the spot, while
+ * {@link #prefetch} builds the grids of days the user is likely to page to
+ * on a background thread. The cache listens to the manager and drops only
+ * the days a change touches. Each invalidation bumps a version, and a grid
+ * built while the version moved is not cached, so a build racing a change
+ * never leaves a stale grid behind.
+ */
+class DayGridCache implements ReservationListener {
+    static final int HOURS = 10; // 8:00 to 18:00
+    static final int OPENING_HOUR = 8;
+    private static final int BULK_INVALIDATION_THRESHOLD = 10_000;
+
+    private final ReservationManager manager;
+    private final int capacity;
+    private final Map<LocalDate, Reservation[]> grids;
+    private final ExecutorService prefetcher;
+    private final AtomicLong prefetchRequest;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter prefetched;
+    private Columns columns;
+    private long version;
+
+    /**
+     * The rooms shown as columns, and their column index.
+     */
+    private static class Columns {
+        private final List<Room> rooms;
+        private final Map<Room, Integer> index;
+
+        /**
+         * Constructs the columns of a list of rooms.
+         *
+         * @param rooms the rooms, in column order
+         */
+        Columns(List<Room> rooms) {
+            this.rooms = rooms;
+            this.index = new HashMap<>();
+            for (int i = 0; i < rooms.size(); i++) {
+                index.put(rooms.get(i), i);
+            }
+        }
+    }
+
+    /**
+     * Constructs a DayGridCache and registers it with the manager.
+     *
+     * @param manager the reservation manager
+     * @param capacity the maximum number of cached days
+     */
+    DayGridCache(ReservationManager manager, int capacity) {
+        this.manager = manager;
+        this.capacity = capacity;
+        this.grids = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<LocalDate, Reservation[]> eldest) {
+                return size() > DayGridCache.this.capacity;
+            }
+        };
+        this.prefetcher = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "day-grid-prefetch");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        this.prefetchRequest = new AtomicLong();
+        this.hits = Metrics.getRegistry().counter("view.dayGrid.hits");
+        this.misses = Metrics.getRegistry().counter("view.dayGrid.misses");
+        this.prefetched = Metrics.getRegistry().counter("view.dayGrid.prefetched");
+        this.columns = new Columns(List.of());
+        manager.addReservationListener(this);
+    }
+
+    /**
+     * Sets the rooms shown as columns, dropping every cached grid.
+     *
+     * @param rooms the rooms, in column order
+     */
+    synchronized void setRooms(List<Room> rooms) {
+        columns = new Columns(rooms);
+        grids.clear();
+        version++;
+    }
+
+    /**
+     * Gets the grid of a day, building it if it is not cached.
+     *
+     * @param date the date
+     * @return the grid, indexed by hour row * rooms + room column
+     */
+    Reservation[] get(LocalDate date) {
+        Columns current;
+        long expected;
+        synchronized (this) {
+            Reservation[] grid = grids.get(date);
+            if (grid != null) {
+                hits.increment();
+                return grid;
+            }
+            current = columns;
+            expected = version;
+        }
+        misses.increment();
+        // Built without holding the cache lock, which listeners take under the manager's lock
+        Reservation[] grid = build(current, date);
+        put(date, grid, current, expected);
+        return grid;
+    }
+
+    /**
+     * Builds the grids of the given days in the background, nearest first.
+     * A new request supersedes the days of the previous one not built yet.
+     *
+     * @param dates the days to prefetch, in order of priority
+     */
+    void prefetch(List<LocalDate> dates) {
+        long request = prefetchRequest.incrementAndGet();
+        prefetcher.execute(() -> {
+            for (LocalDate date : dates) {
+                if (prefetchRequest.get() != request) {
+                    return;
+                }
+                Columns current;
+                long expected;
+                synchronized (this) {
+                    if (grids.containsKey(date)) {
+                        continue;
+                    }
+                    current = columns;
+                    expected = version;
+                }
+                // Loads the day from a partitioned store too, off the EDT
+                manager.ensureLoaded(date, date);
+                if (put(date, build(current, date), current, expected)) {
+                    prefetched.increment();
+                }
+            }
+        });
+    }
+
+    /**
+     * Checks whether the grid of a day is cached, without affecting its recency.
+     *
+     * @param date the date
+     * @return true if the grid is cached, false otherwise
+     */
+    synchronized boolean isCached(LocalDate date) {
+        return grids.containsKey(date);
+    }
+
+    /**
+     * Caches a grid unless the columns changed or a change was made since the build started.
+     *
+     * @return true if the grid was cached, false otherwise
+     */
+    private synchronized boolean put(LocalDate date, Reservation[] grid, Columns builtFor, long builtAt) {
+        if (builtFor != columns || builtAt != version) {
+            return false;
+        }
+        grids.put(date, grid);
+        return true;
+    }
+
+    /**
+     * Builds the reservation grid for a date.
+     *
+     * @param columns the shown rooms
+     * @param date the date
+     * @return the grid, indexed by hour row * rooms + room column
+     */
+    private Reservation[] build(Columns columns, LocalDate date) {
+        int width = columns.rooms.size();
+        Reservation[] cells = new Reservation[HOURS * width];
+        for (Reservation reservation : manager.getReservationsForDate(date)) {
+            Integer column = columns.index.get(reservation.getRoom());
+            if (column == null) {
+                continue;
+            }
+            int firstRow = Math.max(reservation.getStartHour() - OPENING_HOUR, 0);
+            int lastRow = Math.min(reservation.getEndHour() - OPENING_HOUR, HOURS);
+            for (int row = firstRow; row < lastRow; row++) {
+                if (cells[row * width + column] == null) {
+                    cells[row * width + column] = reservation;
+                }
+            }
+        }
+        return cells;
+    }
+
+    /**
+     * Drops the grid of a changed day.
+     *
+     * @param date the date
+     */
+    private synchronized void invalidate(LocalDate date) {
+        version++;
+        grids.remove(date);
+    }
+
+    /**
+     * Drops the grids of the days of changed reservations, or every grid for large batches.
+     *
+     * @param reservations the changed reservations
+     */
+    private synchronized void invalidate(List<Reservation> reservations) {
+        version++;
+        if (reservations.size() > BULK_INVALIDATION_THRESHOLD) {
+            grids.clear();
+            return;
+        }
+        for (Reservation reservation : reservations) {
+            grids.remove(reservation.getDate());
+        }
+    }
+
+    /**
+     * Drops the grids of the days a series occurs on.
+     *
+     * @param series the changed series
+     */
+    private synchronized void invalidate(ReservationSeries series) {
+        version++;
+        Iterator<LocalDate> dates = grids.keySet().iterator();
+        while (dates.hasNext()) {
+            if (series.occursOn(dates.next())) {
+                dates.remove();
+            }
+        }
+    }
+
+    // Called under the manager's lock, possibly from several threads: only drop grids, never build them
+
+    @Override
+    public void reservationAdded(Reservation reservation) {
+        invalidate(reservation.getDate());
+    }
+
+    @Override
+    public void reservationRemoved(Reservation reservation) {
+        invalidate(reservation.getDate());
+    }
+
+    @Override
+    public void reservationUpdated(Reservation previous, Reservation updated) {
+        invalidate(previous.getDate());
+        invalidate(updated.getDate());
+    }
+
+    @Override
+    public synchronized void reservationsLoaded(List<Reservation> reservations) {
+        // Everything was replaced, including days that are now empty
+        version++;
+        grids.clear();
+    }
+
+    @Override
+    public void reservationsAppended(List<Reservation> reservations, String source) {
+        invalidate(reservations);
+    }
+
+    @Override
+    public void reservationsEvicted(List<Reservation> reservations) {
+        // Evicted reservations still exist, so their grids stay valid
+    }
+
+    @Override
+    public void seriesAdded(ReservationSeries series) {
+        invalidate(series);
+    }
+
+    @Override
+    public void seriesRemoved(ReservationSeries series) {
+        invalidate(series);
+    }
+
+    @Override
+    public void seriesUpdated(ReservationSeries previous, ReservationSeries updated) {
+        invalidate(previous);
+        invalidate(updated);
+    }
+}
@@ -2,7 +2,14 @@ package views;
 
 import controllers.ReservationManager;
 import controllers.FileManager;
+import controllers.ProgressListener;
+import controllers.ReservationFileFormat;
+import controllers.ReservationStore;
 import models.reservation.Reservation;
+import models.reservation.ReservationSeries;
+import models.room.RoomFeature;
+import models.room.RoomFilter;
+import models.room.RoomType;
 
 import javax.swing.*;
 import javax.swing.filechooser.FileNameExtensionFilter;
@@ -16,6 +23,15 @@ import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
 
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
@@ -24,11 +40,22 @@ import java.awt.event.WindowEvent;
  * The main window of the Room Manager application.
  */
 public class MainWindow extends JFrame {
+    private static final int WEEK_DAYS = 7;
+    private static final int LOAD_BATCH_SIZE = 10_000;
+
     private final ReservationManager reservationManager;
     private final FileManager fileManager;
     private final RoomTableView tableView;
     private final JLabel dateLabel;
+    private final JPanel statusBar;
+    private final JLabel statusLabel;
+    private final JProgressBar progressBar;
+    private final JButton cancelButton;
+    private final JMenuItem saveItem;
+    private final JMenuItem loadItem;
+    private final List<AbstractButton> editActions = new ArrayList<>();
     private LocalDate currentDate;
+    private volatile boolean cancelRequested;
 
     /**
      * Constructs a MainWindow.
@@ -64,10 +91,31 @@ public class MainWindow extends JFrame {
             }
         });
 
+        saveItem = new JMenuItem("Save Reservations");
+        saveItem.addActionListener(e -> saveReservations());
+        loadItem = new JMenuItem("Load Reservations");
+        loadItem.addActionListener(e -> loadReservations());
+
+        statusLabel = new JLabel();
+        progressBar = new JProgressBar();
+        cancelButton = new JButton("Cancel");
+        cancelButton.addActionListener(e -> {
+            cancelRequested = true;
+            cancelButton.setEnabled(false);
+        });
+        statusBar = new JPanel(new BorderLayout(8, 0));
+        statusBar.setBorder(BorderFactory.createEmptyBorder(2, 6, 2, 6));
+        statusBar.add(statusLabel, BorderLayout.WEST);
+        statusBar.add(progressBar, BorderLayout.CENTER);
+        statusBar.add(cancelButton, BorderLayout.EAST);
+        statusBar.setVisible(false);
+
         setJMenuBar(createMenuBar());
         setLayout(new BorderLayout());
         add(createToolBar(), BorderLayout.NORTH);
         add(new JScrollPane(tableView), BorderLayout.CENTER);
+        add(statusBar, BorderLayout.SOUTH);
+        loadItem.setEnabled(reservationManager.getReservationStore() == null);
 
         updateTable();
     }
@@ -81,10 +129,6 @@ public class MainWindow extends JFrame {
         JMenuBar menuBar = new JMenuBar();
         
         JMenu fileMenu = new JMenu("File");
-        JMenuItem saveItem = new JMenuItem("Save Reservations");
-        saveItem.addActionListener(e -> saveReservations());
-        JMenuItem loadItem = new JMenuItem("Load Reservations");
-        loadItem.addActionListener(e -> loadReservations());
         JMenuItem printItem = new JMenuItem("Print Table");
         printItem.addActionListener(e -> printTable());
         fileMenu.add(saveItem);
@@ -102,6 +146,7 @@ public class MainWindow extends JFrame {
         editMenu.add(addItem);
         editMenu.add(editItem);
         editMenu.add(removeItem);
+        editActions.addAll(List.of(addItem, editItem, removeItem));
         
         menuBar.add(fileMenu);
         menuBar.add(editMenu);
@@ -132,22 +177,95 @@ public class MainWindow extends JFrame {
         JButton nextDay = new JButton("→");
         nextDay.addActionListener(e -> changeDate(1));
 
+        JButton filterButton = new JButton("Filter Rooms");
+        filterButton.addActionListener(e -> showRoomFilterDialog());
+
+        JComboBox<String> viewCombo = new JComboBox<>(new String[] {"Day", "Week"});
+        viewCombo.setMaximumSize(viewCombo.getPreferredSize());
+        viewCombo.addActionListener(e -> {
+            tableView.setDaysShown(viewCombo.getSelectedIndex() == 0 ? 1 : WEEK_DAYS);
+            updateTable();
+        });
+
         toolBar.add(addButton);
         toolBar.add(editButton);
         toolBar.add(removeButton);
+        editActions.addAll(List.of(addButton, editButton, removeButton));
         toolBar.addSeparator();
         toolBar.add(prevDay);
         toolBar.add(dateLabel);
         toolBar.add(nextDay);
+        toolBar.addSeparator();
+        toolBar.add(viewCombo);
+        toolBar.addSeparator();
+        toolBar.add(filterButton);
 
         return toolBar;
     }
 
+    /**
+     * Shows the dialog to choose which rooms are shown as columns.
+     */
+    private void showRoomFilterDialog() {
+        RoomFilter filter = tableView.getRoomFilter();
+
+        JComboBox<String> typeCombo = new JComboBox<>();
+        typeCombo.addItem("Any");
+        for (RoomType type : RoomType.values()) {
+            typeCombo.addItem(type.getDisplayName());
+        }
+        typeCombo.setSelectedIndex(filter.getRoomType() == null ? 0 : filter.getRoomType().ordinal() + 1);
+        JSpinner capacitySpinner = new JSpinner(new SpinnerNumberModel(filter.getMinCapacity(), 0, 10_000, 10));
+        Map<RoomFeature, JCheckBox> featureBoxes = new EnumMap<>(RoomFeature.class);
+        JPanel featurePanel = new JPanel(new GridLayout(0, 2));
+        for (RoomFeature feature : RoomFeature.values()) {
+            JCheckBox box = new JCheckBox(feature.getDisplayName(), filter.getRequiredFeatures().contains(feature));
+            featureBoxes.put(feature, box);
+            featurePanel.add(box);
+        }
+
+        JPanel panel = new JPanel(new GridBagLayout());
+        GridBagConstraints gbc = new GridBagConstraints();
+        gbc.insets = new Insets(4, 4, 4, 4);
+        gbc.anchor = GridBagConstraints.WEST;
+        gbc.gridx = 0;
+        gbc.gridy = 0;
+        panel.add(new JLabel("Room type:"), gbc);
+        gbc.gridx = 1;
+        panel.add(typeCombo, gbc);
+        gbc.gridx = 0;
+        gbc.gridy = 1;
+        panel.add(new JLabel("Minimum capacity:"), gbc);
+        gbc.gridx = 1;
+        panel.add(capacitySpinner, gbc);
+        gbc.gridx = 0;
+        gbc.gridy = 2;
+        gbc.gridwidth = 2;
+        panel.add(featurePanel, gbc);
+
+        int response = JOptionPane.showConfirmDialog(this, panel, "Filter Rooms",
+            JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
+        if (response != JOptionPane.OK_OPTION) {
+            return;
+        }
+        int typeIndex = typeCombo.getSelectedIndex();
+        Set<RoomFeature> features = EnumSet.noneOf(RoomFeature.class);
+        featureBoxes.forEach((feature, box) -> {
+            if (box.isSelected()) {
+                features.add(feature);
+            }
+        });
+        tableView.setRoomFilter(new RoomFilter(typeIndex == 0 ? null : RoomType.values()[typeIndex - 1],
+            (Integer) capacitySpinner.getValue(), features));
+    }
+
     /**
      * Shows the dialog to add a new reservation.
      */
     private void showAddReservationDialog() {
-        ReservationDialog dialog = new ReservationDialog(this, reservationManager, currentDate);
+        LocalDate selectedDate = tableView.getSelectedDate();
+        ReservationDialog dialog = new ReservationDialog(this, reservationManager,
+            selectedDate != null ? selectedDate : currentDate);
         dialog.setVisible(true);
         if (dialog.getReservation() != null) {
             updateTable();
@@ -191,8 +309,15 @@ public class MainWindow extends JFrame {
 
     /**
      * Saves the reservations to a file.
+     * The file is written by a background worker, so the window stays
+     * responsive; the save can be cancelled, leaving the file unchanged.
      */
     private void saveReservations() {
+        ReservationStore store = reservationManager.getReservationStore();
+        if (store != null) {
+            saveStore(store);
+            return;
+        }
         JFileChooser fileChooser = new JFileChooser();
         fileChooser.setFileFilter(new FileNameExtensionFilter("Reservation Files (*.resv)", "resv"));
         if (fileChooser.showSaveDialog(this) == JFileChooser.APPROVE_OPTION) {
@@ -206,40 +331,221 @@ public class MainWindow extends JFrame {
                     return;
                 }
             }
-            try {
-                fileManager.saveReservations(file.getPath(), 
-                    reservationManager.getAllReservations());
-                JOptionPane.showMessageDialog(this, "Reservations saved successfully!");
-            } catch (Exception e) {
-                JOptionPane.showMessageDialog(this,
-                    "Error saving reservations: " + e.getMessage(),
-                    "Error",
-                    JOptionPane.ERROR_MESSAGE);
-            }
+            // Snapshots taken on the EDT, so the saved state is the one on screen
+            List<Reservation> reservations = reservationManager.getAllReservations();
+            List<ReservationSeries> series = reservationManager.getAllSeries();
+            startTask("Saving " + reservations.size() + " reservations...", -1);
+            new SwingWorker<Long, Long>() {
+                @Override
+                protected Long doInBackground() throws IOException {
+                    long bytes = fileManager.saveReservations(file.getPath(), reservations, series,
+                        ReservationFileFormat.BINARY, new ProgressListener() {
+                            @Override
+                            public void progress(long done) {
+                                publish(done);
+                            }
+
+                            @Override
+                            public boolean isCancelled() {
+                                return cancelRequested;
+                            }
+                        });
+                    if (bytes < 0 && !cancelRequested) {
+                        throw new IOException("Could not write " + file.getName());
+                    }
+                    return bytes;
+                }
+
+                @Override
+                protected void process(List<Long> chunks) {
+                    statusLabel.setText("Saving " + reservations.size() + " reservations... "
+                        + chunks.get(chunks.size() - 1) / 1024 + " KB written");
+                }
+
+                @Override
+                protected void done() {
+                    finishTask();
+                    try {
+                        if (get() < 0) {
+                            JOptionPane.showMessageDialog(MainWindow.this, "Save cancelled.");
+                        } else {
+                            JOptionPane.showMessageDialog(MainWindow.this, "Reservations saved successfully!");
+                        }
+                    } catch (InterruptedException | ExecutionException e) {
+                        showTaskError("Error saving reservations: ", e);
+                    }
+                }
+            }.execute();
         }
     }
 
+    /**
+     * Writes the pending changes to the attached reservation store, in the background.
+     *
+     * @param store the store
+     */
+    private void saveStore(ReservationStore store) {
+        startTask("Saving changes...", -1);
+        cancelButton.setEnabled(false);
+        new SwingWorker<Void, Void>() {
+            @Override
+            protected Void doInBackground() throws IOException {
+                store.flush();
+                return null;
+            }
+
+            @Override
+            protected void done() {
+                finishTask();
+                try {
+                    get();
+                    JOptionPane.showMessageDialog(MainWindow.this, "Reservations saved successfully!");
+                } catch (InterruptedException | ExecutionException e) {
+                    showTaskError("Error saving reservations: ", e);
+                }
+            }
+        }.execute();
+    }
+
     /**
      * Loads the reservations from a file.
+     * The file is read by a background worker that hands the reservations
+     * to the manager in batches, refreshing the table after each one so the
+     * shown days fill in before the whole file is read. Cancelling restores
+     * the reservations held before the load.
      */
     private void loadReservations() {
         JFileChooser fileChooser = new JFileChooser();
         fileChooser.setFileFilter(new FileNameExtensionFilter("Reservation Files (*.resv)", "resv"));
         if (fileChooser.showOpenDialog(this) == JFileChooser.APPROVE_OPTION) {
             File file = fileChooser.getSelectedFile();
-            try {
-                reservationManager.loadReservations(file.getPath());
-                updateTable();
-                JOptionPane.showMessageDialog(this, "Reservations loaded successfully!");
-            } catch (Exception e) {
-                JOptionPane.showMessageDialog(this,
-                    "Error loading reservations: " + e.getMessage(),
-                    "Error",
-                    JOptionPane.ERROR_MESSAGE);
-            }
+            startTask("Loading reservations...", -1);
+            new SwingWorker<Boolean, Integer>() {
+                private int total = -1;
+
+                @Override
+                protected Boolean doInBackground() throws IOException {
+                    List<Reservation> previous = reservationManager.getAllReservations();
+                    List<ReservationSeries> previousSeries = reservationManager.getAllSeries();
+                    total = fileManager.countReservations(file.getPath());
+                    int[] loaded = {0};
+                    try {
+                        reservationManager.loadReservations(List.of());
+                        fileManager.streamReservations(file.getPath(), reservationManager, LOAD_BATCH_SIZE, batch -> {
+                            if (cancelRequested) {
+                                throw new CancellationException();
+                            }
+                            reservationManager.appendReservations(batch, file.getPath());
+                            loaded[0] += batch.size();
+                            publish(loaded[0]);
+                        });
+                        if (cancelRequested) {
+                            throw new CancellationException();
+                        }
+                        fileManager.loadSeries(file.getPath(), reservationManager).forEach(reservationManager::addSeries);
+                        return true;
+                    } catch (CancellationException e) {
+                        restore(previous, previousSeries);
+                        return false;
+                    } catch (IOException | RuntimeException e) {
+                        restore(previous, previousSeries);
+                        throw e;
+                    }
+                }
+
+                @Override
+                protected void process(List<Integer> chunks) {
+                    int loaded = chunks.get(chunks.size() - 1);
+                    if (total >= 0) {
+                        progressBar.setIndeterminate(false);
+                        progressBar.setMaximum(Math.max(total, 1));
+                        progressBar.setValue(loaded);
+                        statusLabel.setText("Loading reservations... " + loaded + " of " + total);
+                    } else {
+                        statusLabel.setText("Loading reservations... " + loaded + " read");
+                    }
+                    updateTable();
+                }
+
+                @Override
+                protected void done() {
+                    finishTask();
+                    updateTable();
+                    try {
+                        if (get()) {
+                            JOptionPane.showMessageDialog(MainWindow.this, "Reservations loaded successfully!");
+                        } else {
+                            JOptionPane.showMessageDialog(MainWindow.this,
+                                "Load cancelled. The previous reservations were restored.");
+                        }
+                    } catch (InterruptedException | ExecutionException e) {
+                        showTaskError("Error loading reservations: ", e);
+                    }
+                }
+            }.execute();
         }
     }
 
+    /**
+     * Puts back the reservations held before an interrupted load.
+     *
+     * @param reservations the previous reservations
+     * @param series the previous reservation series
+     */
+    private void restore(List<Reservation> reservations, List<ReservationSeries> series) {
+        reservationManager.loadReservations(reservations);
+        series.forEach(reservationManager::addSeries);
+    }
+
+    /**
+     * Shows the status bar for a background file task and disables the file actions.
+     * Reservations cannot be added, edited or removed until the task finishes,
+     * so no edit is checked against a half-loaded manager or lost when a
+     * cancelled load restores the previous reservations.
+     *
+     * @param message the status message
+     * @param maximum the progress maximum, or a negative value if the progress is unknown
+     */
+    private void startTask(String message, int maximum) {
+        cancelRequested = false;
+        saveItem.setEnabled(false);
+        loadItem.setEnabled(false);
+        editActions.forEach(action -> action.setEnabled(false));
+        statusLabel.setText(message);
+        progressBar.setIndeterminate(maximum < 0);
+        progressBar.setMaximum(Math.max(maximum, 1));
+        progressBar.setValue(0);
+        cancelButton.setEnabled(true);
+        statusBar.setVisible(true);
+        revalidate();
+    }
+
+    /**
+     * Hides the status bar after a background file task and enables the file and edit actions again.
+     */
+    private void finishTask() {
+        statusBar.setVisible(false);
+        saveItem.setEnabled(true);
+        editActions.forEach(action -> action.setEnabled(true));
+        // A partitioned store is never replaced by a single file
+        loadItem.setEnabled(reservationManager.getReservationStore() == null);
+        revalidate();
+    }
+
+    /**
+     * Shows the error of a failed background file task.
+     *
+     * @param prefix the start of the message
+     * @param e the exception thrown by the task
+     */
+    private void showTaskError(String prefix, Exception e) {
+        Throwable cause = e instanceof ExecutionException && e.getCause() != null ? e.getCause() : e;
+        JOptionPane.showMessageDialog(this,
+            prefix + cause.getMessage(),
+            "Error",
+            JOptionPane.ERROR_MESSAGE);
+    }
+
     /**
      * Prints the table.
      */
@@ -255,20 +561,27 @@ public class MainWindow extends JFrame {
     }
 
     /**
-     * Updates the table with the current date's reservations.
+     * Updates the table with the reservations of the shown days.
      */
     private void updateTable() {
+        reservationManager.ensureLoaded(currentDate, currentDate.plusDays(tableView.getDaysShown() - 1));
         tableView.updateData(currentDate);
-        dateLabel.setText(currentDate.format(DateTimeFormatter.ofPattern("dd/MM/yyyy")));
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+        int days = tableView.getDaysShown();
+        if (days == 1) {
+            dateLabel.setText(currentDate.format(formatter));
+        } else {
+            dateLabel.setText(currentDate.format(formatter) + " - " + currentDate.plusDays(days - 1).format(formatter));
+        }
     }
 
     /**
-     * Changes the current date by a specified number of days.
+     * Changes the current date by a number of pages of the shown days.
      *
-     * @param days the number of days to change the date by
+     * @param pages the number of days, or weeks in the week view, to move by
      */
-    private void changeDate(int days) {
-        currentDate = currentDate.plusDays(days);
+    private void changeDate(int pages) {
+        currentDate = currentDate.plusDays((long) pages * tableView.getDaysShown());
         updateTable();
     }
 
@@ -9,6 +9,8 @@ import javax.swing.*;
 import java.awt.*;
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 
 /**
@@ -29,6 +31,10 @@ public class ReservationDialog extends JDialog {
     private JCheckBox projectorCheckBox;
     private JCheckBox pcsCheckBox;
     private JCheckBox outletsCheckBox;
+    private JComboBox<String> repeatCombo;
+    private JTextField untilField;
+    private JLabel repeatLabel;
+    private JLabel untilLabel;
     private JButton okButton;
 
     /**
@@ -55,7 +61,7 @@ public class ReservationDialog extends JDialog {
         this.manager = manager;
         this.date = date;
 
-        setSize(400, 380);
+        setSize(400, 440);
         setLocationRelativeTo(owner);
         setLayout(new BorderLayout());
 
@@ -78,6 +84,10 @@ public class ReservationDialog extends JDialog {
 
         roomCombo.setSelectedItem(reservation.getRoom());
         roomCombo.setEnabled(false); // Disable room selection for editing
+        repeatLabel.setVisible(false); // Only new reservations can repeat
+        repeatCombo.setVisible(false);
+        untilLabel.setVisible(false);
+        untilField.setVisible(false);
 
         startTimeCombo.setSelectedItem(reservation.getStartTime());
         endTimeCombo.setSelectedItem(reservation.getEndTime());
@@ -160,6 +170,27 @@ public class ReservationDialog extends JDialog {
         typeCombo.addActionListener(e -> updateOkButtonState());
         panel.add(typeCombo, gbc);
 
+        // Recurrence
+        gbc.gridx = 0; gbc.gridy = 6;
+        repeatLabel = new JLabel("Repeat:");
+        panel.add(repeatLabel, gbc);
+        gbc.gridx = 1;
+        repeatCombo = new JComboBox<>();
+        repeatCombo.addItem("Never");
+        for (Recurrence recurrence : Recurrence.values()) {
+            repeatCombo.addItem(recurrence.getDisplayName());
+        }
+        repeatCombo.addActionListener(e -> untilField.setEnabled(getSelectedRecurrence() != null));
+        panel.add(repeatCombo, gbc);
+
+        gbc.gridx = 0; gbc.gridy = 7;
+        untilLabel = new JLabel("Until (dd/MM/yyyy):");
+        panel.add(untilLabel, gbc);
+        gbc.gridx = 1;
+        untilField = new JTextField(date.plusMonths(4).format(DateTimeFormatter.ofPattern("dd/MM/yyyy")), 20);
+        untilField.setEnabled(false);
+        panel.add(untilField, gbc);
+
         return panel;
     }
 
@@ -279,7 +310,6 @@ public class ReservationDialog extends JDialog {
         ReservationType type = (ReservationType) typeCombo.getSelectedItem();
 
         // Validate reservation
-        List<Reservation> existingReservations = manager.getReservationsForDate(date);
         ValidationUtils.ValidationResult validationResult = ValidationUtils.validateReservationTime(room, startTime, endTime, date);
         if (!validationResult.isValid()) {
             JOptionPane.showMessageDialog(this, validationResult.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
@@ -292,13 +322,16 @@ public class ReservationDialog extends JDialog {
             return;
         }
 
-        validationResult = ValidationUtils.validateNoConflict(new Reservation(room, date, startTime, endTime, reservedBy, type), existingReservations, reservation);
+        validationResult = ValidationUtils.validateNoConflict(new Reservation(room, date, startTime, endTime, reservedBy, type), manager, reservation);
         if (!validationResult.isValid()) {
             JOptionPane.showMessageDialog(this, validationResult.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
             return;
         }
 
-        if (reservation == null) {
+        Recurrence recurrence = getSelectedRecurrence();
+        if (reservation == null && recurrence != null) {
+            createSeries(room, startTime, endTime, reservedBy, type, recurrence);
+        } else if (reservation == null) {
             reservation = new Reservation(room, date, startTime, endTime, reservedBy, type);
             if (manager.addReservation(reservation)) {
                 dispose();
@@ -306,15 +339,60 @@ public class ReservationDialog extends JDialog {
                 JOptionPane.showMessageDialog(this, "Failed to add reservation. Please check the details and try again.", "Error", JOptionPane.ERROR_MESSAGE);
             }
         } else {
-            reservation.setDate(date);
-            reservation.setStartTime(startTime);
-            reservation.setEndTime(endTime);
-            reservation.setReservedBy(reservedBy);
-            reservation.setType(type);
+            Reservation updated = manager.updateReservation(reservation, date, startTime, endTime, reservedBy, type);
+            if (updated != null) {
+                reservation = updated;
+                dispose();
+            } else {
+                JOptionPane.showMessageDialog(this, "Failed to update reservation. Please check the details and try again.", "Error", JOptionPane.ERROR_MESSAGE);
+            }
+        }
+    }
+
+    /**
+     * Creates a reservation series starting on the dialog's date.
+     *
+     * @param room the room
+     * @param startTime the start time of every occurrence
+     * @param endTime the end time of every occurrence
+     * @param reservedBy the name of the person who reserved the room
+     * @param type the reservation type
+     * @param recurrence how often the series repeats
+     */
+    private void createSeries(Room room, LocalTime startTime, LocalTime endTime, String reservedBy,
+                              ReservationType type, Recurrence recurrence) {
+        LocalDate until;
+        try {
+            until = LocalDate.parse(untilField.getText().trim(), DateTimeFormatter.ofPattern("dd/MM/yyyy"));
+        } catch (DateTimeParseException e) {
+            JOptionPane.showMessageDialog(this, "Invalid end date. Please enter the date in dd/MM/yyyy format.", "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        if (until.isBefore(date)) {
+            JOptionPane.showMessageDialog(this, "The end date must not be before the first date.", "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+
+        ReservationSeries series = new ReservationSeries(room, date, until, recurrence, startTime, endTime,
+            reservedBy, type, List.of());
+        if (manager.addSeries(series)) {
+            reservation = series.getOccurrence(date);
             dispose();
+        } else {
+            JOptionPane.showMessageDialog(this, "Failed to add recurring reservation. An occurrence conflicts with an existing reservation.", "Error", JOptionPane.ERROR_MESSAGE);
         }
     }
 
+    /**
+     * Gets the recurrence selected in the dialog.
+     *
+     * @return the recurrence, or null if the reservation does not repeat
+     */
+    private Recurrence getSelectedRecurrence() {
+        int index = repeatCombo.getSelectedIndex();
+        return index <= 0 ? null : Recurrence.values()[index - 1];
+    }
+
     /**
      * Gets the created or edited reservation.
      *
@@ -1,23 +1,63 @@
 package views;
 
 import controllers.ReservationManager;
+import controllers.RoomListener;
 import models.reservation.Reservation;
+import models.reservation.ReservationType;
 import models.room.Room;
+import models.room.RoomFilter;
+import utils.metrics.LatencyHistogram;
+import utils.metrics.Metrics;
 
 import javax.swing.*;
 import javax.swing.table.AbstractTableModel;
-import javax.swing.table.DefaultTableCellRenderer;
+import javax.swing.table.TableCellRenderer;
+import javax.swing.table.TableColumn;
+import javax.swing.table.TableColumnModel;
 import java.awt.*;
 import java.time.LocalDate;
-import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Table view for displaying room reservations.
+ * <p>
+ * There is one column per room passing the current {@link RoomFilter}, kept
+ * in name order. Rooms added to or removed from the manager, and filter
+ * changes, insert or remove single columns instead of rebuilding the table.
  */
 public class RoomTableView extends JTable {
+    private static final int MAX_FITTED_COLUMNS = 20;
+    private static final int ROOM_COLUMN_WIDTH = 110;
+    private static final int TIME_COLUMN_WIDTH = 160;
+    private static final DateTimeFormatter DAY_LABEL_FORMAT = DateTimeFormatter.ofPattern("EEE dd/MM");
+    private static final Color LESSON_COLOR = new Color(135, 206, 250);   // Light Sky Blue
+    private static final Color EXAM_COLOR = new Color(255, 160, 122);     // Light Salmon
+    private static final Color CATCH_UP_COLOR = new Color(144, 238, 144); // Light Green
+    private static final Color OTHER_COLOR = new Color(255, 255, 153);    // Light Yellow
+    private static final Map<ReservationType, Color> TYPE_COLORS = new EnumMap<>(Map.of(
+        ReservationType.LESSON, LESSON_COLOR,
+        ReservationType.EXAM, EXAM_COLOR,
+        ReservationType.CATCH_UP, CATCH_UP_COLOR,
+        ReservationType.OTHER, OTHER_COLOR));
+    private static final Map<?, ?> DESKTOP_HINTS =
+        (Map<?, ?>) Toolkit.getDefaultToolkit().getDesktopProperty("awt.font.desktophints");
+    private static final int CELL_PADDING = 2;
+    private static final String ELLIPSIS = "...";
+
     private final ReservationManager manager;
     private final RoomTableModel model;
+    private final LatencyHistogram paintLatency = Metrics.getRegistry().histogram("view.table.paint.latency");
 
     /**
      * Constructs a RoomTableView.
@@ -27,13 +67,136 @@ public class RoomTableView extends JTable {
     public RoomTableView(ReservationManager manager) {
         this.manager = manager;
         this.model = new RoomTableModel();
+        // Columns are managed by showRooms, so that room changes only touch their own columns
+        setAutoCreateColumnsFromModel(false);
         setModel(model);
+        TableColumn timeColumn = new TableColumn(0, TIME_COLUMN_WIDTH);
+        timeColumn.setHeaderValue(model.getColumnName(0));
+        addColumn(timeColumn);
         
         setDefaultRenderer(Object.class, new ReservationCellRenderer());
         setRowHeight(50);
         getTableHeader().setReorderingAllowed(false);
         setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
         setCellSelectionEnabled(true); // Enable cell selection instead of row selection
+
+        // Registered before the first refresh, so no room added meanwhile is missed
+        manager.addRoomListener(new RoomListener() {
+            @Override
+            public void roomsAdded(Collection<Room> rooms) {
+                SwingUtilities.invokeLater(RoomTableView.this::refreshRooms);
+            }
+
+            @Override
+            public void roomRemoved(Room room) {
+                SwingUtilities.invokeLater(RoomTableView.this::refreshRooms);
+            }
+        });
+        refreshRooms();
+    }
+
+    /**
+     * Sets the filter selecting the rooms shown as columns.
+     * Only the columns of rooms entering or leaving the filter are touched.
+     *
+     * @param filter the room filter
+     */
+    public void setRoomFilter(RoomFilter filter) {
+        if (!filter.equals(model.getFilter())) {
+            model.setFilter(filter);
+            refreshRooms();
+        }
+    }
+
+    /**
+     * Gets the filter selecting the rooms shown as columns.
+     *
+     * @return the room filter
+     */
+    public RoomFilter getRoomFilter() {
+        return model.getFilter();
+    }
+
+    /**
+     * Shows the manager's rooms passing the filter.
+     * Filtered rooms are looked up in the manager's capacity and feature
+     * indexes rather than by scanning every room.
+     */
+    private void refreshRooms() {
+        RoomFilter filter = model.getFilter();
+        if (filter.isEmpty()) {
+            showRooms(List.copyOf(manager.getAllRooms()));
+            return;
+        }
+        List<Room> shown = new ArrayList<>(
+            manager.findRooms(filter.getMinCapacity(), filter.getRequiredFeatures(), filter.getRoomType()));
+        shown.sort(Comparator.comparing(Room::getName));
+        showRooms(shown);
+    }
+
+    /**
+     * Makes the room columns match a list of rooms.
+     * Columns are tagged with their room; the columns of rooms leaving the
+     * list are removed and columns for new rooms are inserted in place, while
+     * the other columns keep their width and state. Model indexes are
+     * renumbered once at the end rather than on every insertion.
+     *
+     * @param shown the rooms to show, sorted by name
+     */
+    private void showRooms(List<Room> shown) {
+        TableColumnModel columns = getColumnModel();
+        Set<Room> kept = Collections.newSetFromMap(new IdentityHashMap<>());
+        kept.addAll(shown);
+        for (int i = columns.getColumnCount() - 1; i > 0; i--) {
+            if (!kept.contains(columns.getColumn(i).getIdentifier())) {
+                columns.removeColumn(columns.getColumn(i));
+            }
+        }
+        for (int i = 0; i < shown.size(); i++) {
+            Room room = shown.get(i);
+            if (i + 1 < columns.getColumnCount() && columns.getColumn(i + 1).getIdentifier() == room) {
+                continue;
+            }
+            // Points at the time column until the model holds the new room list
+            TableColumn column = new TableColumn(0, ROOM_COLUMN_WIDTH);
+            column.setPreferredWidth(ROOM_COLUMN_WIDTH);
+            column.setIdentifier(room);
+            column.setHeaderValue(room.getName());
+            columns.addColumn(column);
+            columns.moveColumn(columns.getColumnCount() - 1, i + 1);
+        }
+
+        model.setRooms(shown);
+        for (int i = 1; i < columns.getColumnCount(); i++) {
+            if (columns.getColumn(i).getModelIndex() != i) {
+                columns.getColumn(i).setModelIndex(i);
+            }
+        }
+        updateColumnLayout();
+        repaint();
+    }
+
+    /**
+     * Switches between fitting the columns to the view and scrolling horizontally,
+     * depending on the number of columns shown.
+     */
+    private void updateColumnLayout() {
+        // With many rooms, scroll horizontally instead of squeezing the columns;
+        // JTable only asks for the values of the cells inside the viewport.
+        boolean scroll = model.getColumnCount() > MAX_FITTED_COLUMNS;
+        if (scroll == (getAutoResizeMode() == JTable.AUTO_RESIZE_OFF)) {
+            return;
+        }
+        if (!scroll) {
+            setAutoResizeMode(JTable.AUTO_RESIZE_SUBSEQUENT_COLUMNS);
+            return;
+        }
+        setAutoResizeMode(JTable.AUTO_RESIZE_OFF);
+        for (int column = 0; column < getColumnCount(); column++) {
+            int width = column == 0 ? TIME_COLUMN_WIDTH : ROOM_COLUMN_WIDTH;
+            getColumnModel().getColumn(column).setPreferredWidth(width);
+            getColumnModel().getColumn(column).setWidth(width);
+        }
     }
 
     /**
@@ -45,6 +208,31 @@ public class RoomTableView extends JTable {
         model.updateData(date);
     }
 
+    /**
+     * Sets the number of consecutive days shown, e.g. 7 for a week view.
+     *
+     * @param days the number of days
+     */
+    public void setDaysShown(int days) {
+        model.setDaysShown(days);
+    }
+
+    /**
+     * Gets the number of consecutive days shown.
+     *
+     * @return the number of days
+     */
+    public int getDaysShown() {
+        return model.getDaysShown();
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        long start = System.nanoTime();
+        super.paintComponent(g);
+        paintLatency.recordSince(start);
+    }
+
     /**
      * Gets the selected reservation.
      *
@@ -59,35 +247,167 @@ public class RoomTableView extends JTable {
         return null;
     }
 
+    /**
+     * Gets the date of the selected row.
+     *
+     * @return the date of the selected row, or null if no row is selected
+     */
+    public LocalDate getSelectedDate() {
+        int selectedRow = getSelectedRow();
+        return selectedRow >= 0 ? model.getDate(selectedRow) : null;
+    }
+
     /**
      * Table model for the room table view.
+     * <p>
+     * The model shows one or more consecutive days, one block of hourly rows
+     * per day. Cells are served from the per-day reservation grids of a
+     * {@link DayGridCache}. Whenever the shown days change, the grids of the
+     * previous and next pages are prefetched in the background, so paging
+     * with the arrow buttons does not query the manager on the EDT.
      */
     private class RoomTableModel extends AbstractTableModel {
-        private final List<Room> rooms;
+        private static final int HOURS = DayGridCache.HOURS;
+        private static final int OPENING_HOUR = DayGridCache.OPENING_HOUR;
+        private static final int CACHED_DAYS = 42;
+        private static final int PREFETCH_PAGES = 2;
+
+        private List<Room> rooms;
+        private RoomFilter filter;
+        private final String[] timeLabels;
+        private final DayGridCache grids;
         private LocalDate currentDate;
-        private static final int HOURS = 10; // 8:00 to 18:00
+        private int days;
+        private LocalDate[] dates;
+        private String[] rowLabels;
+        private final Map<LocalDate, RenderCells> renderCells;
 
         /**
          * Constructs a RoomTableModel.
          */
         public RoomTableModel() {
-            this.rooms = manager.getAllRooms().stream().toList();
-            this.currentDate = LocalDate.now();
+            this.rooms = List.of();
+            this.filter = RoomFilter.ALL;
+            this.timeLabels = new String[HOURS];
+            for (int row = 0; row < HOURS; row++) {
+                timeLabels[row] = String.format("%02d:00 - %02d:00", row + OPENING_HOUR, row + OPENING_HOUR + 1);
+            }
+            this.grids = new DayGridCache(manager, CACHED_DAYS);
+            this.renderCells = new HashMap<>();
+            this.days = 1;
+            setDates(LocalDate.now());
         }
 
         /**
          * Updates the table data for the specified date.
          *
-         * @param date the date to update the table for
+         * @param date the first date to show
          */
         public void updateData(LocalDate date) {
-            this.currentDate = date;
+            setDates(date);
+            fireTableDataChanged();
+        }
+
+        /**
+         * Sets the number of consecutive days shown.
+         *
+         * @param days the number of days
+         */
+        public void setDaysShown(int days) {
+            this.days = days;
+            setDates(currentDate);
             fireTableDataChanged();
         }
 
+        /**
+         * Gets the number of consecutive days shown.
+         *
+         * @return the number of days
+         */
+        public int getDaysShown() {
+            return days;
+        }
+
+        /**
+         * Gets the filter selecting the rooms shown.
+         *
+         * @return the room filter
+         */
+        public RoomFilter getFilter() {
+            return filter;
+        }
+
+        /**
+         * Sets the filter selecting the rooms shown.
+         * The rooms themselves are set by the view.
+         *
+         * @param filter the room filter
+         */
+        public void setFilter(RoomFilter filter) {
+            this.filter = filter;
+        }
+
+        /**
+         * Replaces the rooms shown as columns.
+         *
+         * @param shown the rooms, sorted by name
+         */
+        public void setRooms(List<Room> shown) {
+            rooms = shown;
+            grids.setRooms(shown);
+        }
+
+        /**
+         * Computes the dates and row labels of the shown days.
+         *
+         * @param date the first date to show
+         */
+        private void setDates(LocalDate date) {
+            this.currentDate = date;
+            this.dates = new LocalDate[days];
+            this.rowLabels = new String[days * HOURS];
+            for (int day = 0; day < days; day++) {
+                dates[day] = date.plusDays(day);
+                String dayLabel = days == 1 ? "" : dates[day].format(DAY_LABEL_FORMAT) + "  ";
+                for (int hour = 0; hour < HOURS; hour++) {
+                    rowLabels[day * HOURS + hour] = dayLabel + timeLabels[hour];
+                }
+            }
+            // Only the shown days are painted
+            renderCells.keySet().retainAll(Arrays.asList(dates));
+            prefetchAdjacentPages();
+        }
+
+        /**
+         * Prefetches the grids of the pages before and after the shown days,
+         * the nearest pages first.
+         */
+        private void prefetchAdjacentPages() {
+            List<LocalDate> adjacent = new ArrayList<>();
+            for (int page = 1; page <= PREFETCH_PAGES; page++) {
+                for (int day = 0; day < days; day++) {
+                    adjacent.add(currentDate.plusDays((long) page * days + day));
+                }
+                for (int day = 0; day < days; day++) {
+                    adjacent.add(currentDate.minusDays((long) page * days - day));
+                }
+            }
+            grids.prefetch(adjacent);
+        }
+
+        /**
+         * Gets the date shown in a row.
+         *
+         * @param row the row
+         * @return the date of the row
+         */
+        public LocalDate getDate(int row) {
+            return dates[row / HOURS];
+        }
+
         @Override
         public int getRowCount() {
-            return HOURS;
+            return days * HOURS;
         }
 
         @Override
@@ -104,86 +424,214 @@ public class RoomTableView extends JTable {
         @Override
         public Object getValueAt(int row, int column) {
             if (column == 0) {
-                LocalTime startTime = LocalTime.of(row + 8, 0);
-                LocalTime endTime = startTime.plusHours(1);
-                return String.format("%02d:00 - %02d:00", startTime.getHour(), endTime.getHour());
+                return rowLabels[row];
             }
+            return grids.get(dates[row / HOURS])[(row % HOURS) * rooms.size() + column - 1];
+        }
 
-            Room room = rooms.get(column - 1);
-            LocalTime time = LocalTime.of(row + 8, 0);
-            List<Reservation> reservations = manager.getReservationsForDate(currentDate);
+        /**
+         * Gets the render data of a reservation cell.
+         * Render data lives as long as the grid of its day: when a change
+         * drops the grid, the cells still holding the same reservation in
+         * the rebuilt grid keep theirs, and only the changed cells are laid
+         * out again.
+         *
+         * @param row the row
+         * @param column the model column, greater than 0
+         * @return the render data, or null if the cell is free
+         */
+        public RenderData getRenderData(int row, int column) {
+            LocalDate date = dates[row / HOURS];
+            Reservation[] grid = grids.get(date);
+            int width = rooms.size();
+            int index = (row % HOURS) * width + column - 1;
+            Reservation reservation = grid[index];
+            if (reservation == null) {
+                return null;
+            }
+            RenderCells cells = renderCells.get(date);
+            if (cells == null || cells.grid != grid) {
+                cells = new RenderCells(grid, cells);
+                renderCells.put(date, cells);
+            }
+            RenderData data = cells.data[index];
+            if (data == null) {
+                // A reservation spanning several hours shares the data of the cell above
+                data = index >= width && grid[index - width] == reservation && cells.data[index - width] != null
+                    ? cells.data[index - width] : new RenderData(reservation);
+                cells.data[index] = data;
+            }
+            return data;
+        }
+    }
+
+    /**
+     * The render data of the cells of one day grid, created as the cells are painted.
+     */
+    private static class RenderCells {
+        private final Reservation[] grid;
+        private final RenderData[] data;
 
-            return reservations.stream()
-                .filter(r -> r.getRoom().equals(room))
-                .filter(r -> isTimeInReservation(time, r))
-                .findFirst()
-                .orElse(null);
+        /**
+         * Constructs the render cells of a grid, keeping the data of the
+         * cells that hold the same reservation in the previous grid of the day.
+         *
+         * @param grid the day grid
+         * @param previous the render cells of the previous grid of the day, or null
+         */
+        RenderCells(Reservation[] grid, RenderCells previous) {
+            this.grid = grid;
+            this.data = new RenderData[grid.length];
+            if (previous != null && previous.grid.length == grid.length) {
+                for (int i = 0; i < grid.length; i++) {
+                    if (grid[i] != null && previous.grid[i] == grid[i]) {
+                        data[i] = previous.data[i];
+                    }
+                }
+            }
         }
+    }
+
+    /**
+     * Cached render data of a reservation cell: its colors and the label
+     * lines, clipped and centered for the width they were last laid out for.
+     */
+    private static class RenderData {
+        private final String name;
+        private final String type;
+        private final Color background;
+        private int layoutWidth = -1;
+        private String nameText;
+        private String typeText;
+        private int nameX;
+        private int typeX;
 
         /**
-         * Checks if a time is within a reservation.
+         * Constructs the render data of a reservation.
          *
-         * @param time the time to check
          * @param reservation the reservation
-         * @return true if the time is within the reservation, false otherwise
          */
-        private boolean isTimeInReservation(LocalTime time, Reservation reservation) {
-            return !time.isBefore(reservation.getStartTime()) && 
-                   time.isBefore(reservation.getEndTime());
+        RenderData(Reservation reservation) {
+            this.name = String.valueOf(reservation.getReservedBy());
+            this.type = reservation.getType() == null ? "" : reservation.getType().getDisplayName();
+            this.background = reservation.getType() == null ? OTHER_COLOR : TYPE_COLORS.get(reservation.getType());
+        }
+
+        /**
+         * Lays the label lines out for a cell width, unless already done.
+         *
+         * @param width the cell width
+         * @param metrics the metrics of the cell font
+         */
+        void layout(int width, FontMetrics metrics) {
+            if (width == layoutWidth) {
+                return;
+            }
+            layoutWidth = width;
+            nameText = clip(name, width, metrics);
+            typeText = clip(type, width, metrics);
+            nameX = (width - metrics.stringWidth(nameText)) / 2;
+            typeX = (width - metrics.stringWidth(typeText)) / 2;
+        }
+
+        /**
+         * Shortens a text with an ellipsis until it fits a width.
+         */
+        private static String clip(String text, int width, FontMetrics metrics) {
+            int available = width - 2 * CELL_PADDING;
+            if (metrics.stringWidth(text) <= available) {
+                return text;
+            }
+            int length = text.length();
+            while (length > 0 && metrics.stringWidth(text.substring(0, length) + ELLIPSIS) > available) {
+                length--;
+            }
+            return text.substring(0, length) + ELLIPSIS;
         }
     }
 
     /**
      * Cell renderer for reservation cells.
+     * <p>
+     * Cells are painted directly rather than through an HTML label. Colors
+     * are shared constants and the label layout of each cell is kept by the
+     * model until a change touches its day, so painting a cell allocates
+     * nothing in the steady state.
      */
-    private class ReservationCellRenderer extends DefaultTableCellRenderer {
+    private class ReservationCellRenderer extends JComponent implements TableCellRenderer {
+        private String text;
+        private RenderData data;
+        private Color background;
+        private Color foreground;
+
+        /**
+         * Constructs a ReservationCellRenderer.
+         */
+        ReservationCellRenderer() {
+            setOpaque(true);
+        }
+
         @Override
         public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected, boolean hasFocus, int row, int column) {
-            
-            Component c = super.getTableCellRendererComponent(table, value,
-                    isSelected, hasFocus, row, column);
-
+            setFont(table.getFont());
+            text = null;
+            data = null;
             if (column == 0) {
-                setHorizontalAlignment(JLabel.CENTER);
-                setBackground(table.getBackground());
-                setForeground(table.getForeground());
-                return c;
-            }
-
-            if (value instanceof Reservation reservation) {
-                setText(String.format("<html>%s<br>%s</html>",
-                    reservation.getReservedBy(),
-                    reservation.getType().getDisplayName()));
-                setBackground(getReservationColor(reservation));
-                setForeground(Color.DARK_GRAY); // Set text color to dark grey
-                setHorizontalAlignment(JLabel.CENTER);
+                text = (String) value;
+                background = table.getBackground();
+                foreground = table.getForeground();
+            } else if (value instanceof Reservation) {
+                data = model.getRenderData(row, table.convertColumnIndexToModel(column));
+                background = data.background;
+                foreground = Color.DARK_GRAY; // Set text color to dark grey
             } else {
-                setText("");
-                setBackground(table.getBackground());
-                setForeground(table.getForeground());
+                background = table.getBackground();
+                foreground = table.getForeground();
             }
 
             if (isSelected) {
-                setBackground(table.getSelectionBackground());
-                setForeground(table.getSelectionForeground());
+                background = table.getSelectionBackground();
+                foreground = table.getSelectionForeground();
             }
-
-            return c;
+            return this;
         }
 
-        /**
-         * Gets the color for a reservation based on its type.
-         *
-         * @param reservation the reservation
-         * @return the color for the reservation
-         */
-        private Color getReservationColor(Reservation reservation) {
-            return switch (reservation.getType()) {
-                case LESSON -> new Color(135, 206, 250); // Light Sky Blue
-                case EXAM -> new Color(255, 160, 122);   // Light Salmon
-                case CATCH_UP -> new Color(144, 238, 144); // Light Green
-                default -> new Color(255, 255, 153);      // Light Yellow
-            };
+        @Override
+        protected void paintComponent(Graphics g) {
+            int width = getWidth();
+            int height = getHeight();
+            g.setColor(background);
+            g.fillRect(0, 0, width, height);
+            if (text == null && data == null) {
+                return;
+            }
+
+            if (DESKTOP_HINTS != null && g instanceof Graphics2D graphics) {
+                graphics.addRenderingHints(DESKTOP_HINTS);
+            }
+            g.setFont(getFont());
+            g.setColor(foreground);
+            FontMetrics metrics = g.getFontMetrics();
+            int lineHeight = metrics.getHeight();
+            if (data != null) {
+                data.layout(width, metrics);
+                int top = (height - 2 * lineHeight) / 2 + metrics.getAscent();
+                g.drawString(data.nameText, data.nameX, top);
+                g.drawString(data.typeText, data.typeX, top + lineHeight);
+            } else {
+                int top = (height - lineHeight) / 2 + metrics.getAscent();
+                g.drawString(text, (width - metrics.stringWidth(text)) / 2, top);
+            }
         }
+
+        // Overridden for performance, as in DefaultTableCellRenderer
+        @Override public void invalidate() {}
+        @Override public void validate() {}
+        @Override public void revalidate() {}
+        @Override public void repaint(long tm, int x, int y, int width, int height) {}
+        @Override public void repaint(Rectangle r) {}
+        @Override public void repaint() {}
+        @Override protected void firePropertyChange(String propertyName, Object oldValue, Object newValue) {}
+        @Override public void firePropertyChange(String propertyName, boolean oldValue, boolean newValue) {}
     }
-}
\ No newline at end of file
+}